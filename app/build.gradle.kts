@@ -34,6 +34,18 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        unitTests {
+            // Robolectric necesita los recursos para inflar las actividades en la JVM
+            isIncludeAndroidResources = true
+            all {
+                // Las pruebas de rendimiento se ejecutan solo con -Prendimiento hasta validarlas en CI
+                if (!project.hasProperty("rendimiento")) {
+                    it.exclude("**/RendimientoTest.class")
+                }
+            }
+        }
+    }
 }
 
 dependencies {
@@ -46,6 +58,8 @@ dependencies {
     implementation(libs.navigation.fragment)
     implementation(libs.navigation.ui)
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }}
\ No newline at end of file
@@ -0,0 +1,581 @@
+package com.romerofernandez.supermario;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import java.util.Random;
+
+/**
+ * Vista que anima al personaje de Pantalla2 (reposo y salto) en un hilo de render propio.
+ *
+ * El bucle usa un paso de tiempo fijo de 1/60 s: la lógica avanza siempre en pasos iguales y el
+ * dibujado interpola entre el estado anterior y el actual. Los fotogramas se sincronizan con la
+ * pantalla mediante el Choreographer del hilo de render, por lo que el hilo principal no interviene.
+ *
+ * Los fotogramas de las animaciones y los sprites (el personaje y las partículas de polvo) salen de
+ * pools creados al inicio, y todos los objetos de dibujado se reservan una sola vez, de forma que
+ * el bucle no crea objetos mientras se ejecuta. El atlas del personaje se obtiene de
+ * {@link CacheImagenes} y se divide en celdas de igual tamaño. Al tocar la vista el personaje salta.
+ *
+ * Mientras la vista está fuera de la pantalla (por ejemplo, con la cabecera de Pantalla2 desplazada
+ * para leer la biografía) el bucle se pausa con {@link #setPausada(boolean)} y deja de dibujar.
+ */
+public class AnimacionView extends SurfaceView implements SurfaceHolder.Callback, Choreographer.FrameCallback {
+
+    private static final long PASO_NS = 1_000_000_000L / 60;
+    private static final long MAX_DELTA_NS = 250_000_000L; // Evita la espiral de actualizaciones tras una pausa
+    private static final int MAX_SPRITES = 16;
+    private static final int MAX_FRAMES = 16;
+    private static final int PARTICULAS_POR_ATERRIZAJE = 6;
+
+    // Física del salto en unidades de altura de salto por paso (0 = suelo, -1 = punto más alto)
+    private static final float VELOCIDAD_SALTO = 0.085f;
+    private static final float GRAVEDAD = 0.0036f;
+    private static final float FRACCION_SALTO = 0.3f;   // Parte del alto de la vista reservada al salto
+    private static final float MARGEN_SUELO = 0.06f;
+
+    // Definición de las animaciones: {celda del atlas, escala vertical en milésimas, pasos}
+    private static final int[][] DEF_REPOSO = {{0, 1000, 12}, {0, 1015, 12}, {0, 1030, 12}, {0, 1015, 12}};
+    private static final int[][] DEF_IMPULSO = {{0, 880, 4}, {0, 840, 4}};
+    private static final int[][] DEF_AIRE = {{0, 1100, 1}};
+    private static final int[][] DEF_ATERRIZAJE = {{0, 860, 5}, {0, 950, 4}};
+
+    // Estados del personaje
+    private static final int REPOSO = 0;
+    private static final int IMPULSO = 1;
+    private static final int AIRE = 2;
+    private static final int ATERRIZAJE = 3;
+
+    /**
+     * Fotograma de una animación: una celda del atlas y la deformación con la que se dibuja.
+     */
+    static final class FrameSprite {
+        final Rect origen = new Rect();
+        float escalaY;
+        int pasos;
+    }
+
+    /**
+     * Sprite animado o partícula. Guarda la posición anterior para interpolar al dibujar.
+     */
+    static final class Sprite {
+        float x, y, xAnterior, yAnterior, vx, vy;
+        int vida, vidaMax;
+        FrameSprite[] animacion;
+        int indiceFrame;
+        int pasosRestantes;
+
+        void reiniciar() {
+            x = y = xAnterior = yAnterior = vx = vy = 0;
+            vida = vidaMax = 0;
+            animacion = null;
+            indiceFrame = 0;
+            pasosRestantes = 0;
+        }
+    }
+
+    private final EstadisticasFrames estadisticas = new EstadisticasFrames();
+    private final Object lockSuperficie = new Object();
+
+    // Configuración escrita desde el hilo principal y leída en el hilo de render
+    private volatile int atlasResId;
+    private volatile int columnas = 1;
+    private volatile int filas = 1;
+    private volatile int colorFondo = Color.WHITE;
+    private volatile boolean saltoPendiente;
+    private volatile boolean pausada;
+    private volatile int ancho;
+    private volatile int alto;
+    private boolean superficieValida; // protegido por lockSuperficie
+
+    private HandlerThread hiloRender;
+    private Handler handlerRender;
+
+    // Estado del hilo de render
+    private Choreographer choreographer;
+    private boolean activo;
+    private long ultimoFrameNs;
+    private long acumuladoNs;
+    private Bitmap atlas;
+    private int atlasCargado;
+    private PoolObjetos<FrameSprite> poolFrames;
+    private PoolObjetos<Sprite> poolSprites;
+    private FrameSprite[] reposo, impulso, aire, aterrizaje;
+    private Sprite personaje;
+    private final Sprite[] particulas = new Sprite[MAX_SPRITES];
+    private int numParticulas;
+    private int estado = REPOSO;
+    private final Random random = new Random();
+    private final RectF destino = new RectF();
+    private final RectF sombra = new RectF();
+    private final Paint pintaSprite = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint pintaSombra = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pintaPolvo = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final Runnable iniciarEnRender = this::iniciar;
+    private final Runnable detenerEnRender = this::detener;
+
+    /**
+     * Constructor usado al inflar la vista desde un layout.
+     *
+     * @param context El contexto de la vista.
+     * @param attrs Los atributos del layout.
+     */
+    public AnimacionView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        getHolder().addCallback(this);
+        getHolder().setFormat(PixelFormat.OPAQUE); // Cada fotograma pinta el fondo completo
+        pintaSombra.setColor(0x40000000);
+        pintaPolvo.setColor(0xFFBFA58A);
+    }
+
+    /**
+     * Establece el atlas del personaje.
+     *
+     * @param atlasResId El ID del recurso del atlas.
+     * @param columnas El número de columnas de celdas del atlas.
+     * @param filas El número de filas de celdas del atlas.
+     */
+    public void setAtlas(int atlasResId, int columnas, int filas) {
+        this.atlasResId = atlasResId;
+        this.columnas = columnas;
+        this.filas = filas;
+    }
+
+    /**
+     * Establece el color con el que se limpia la superficie en cada fotograma.
+     *
+     * @param colorFondo El color de fondo.
+     */
+    public void setColorFondo(int colorFondo) {
+        this.colorFondo = colorFondo;
+    }
+
+    /**
+     * Hace saltar al personaje si está en reposo.
+     */
+    public void saltar() {
+        saltoPendiente = true;
+    }
+
+    /**
+     * Pausa o reanuda el bucle de animación, por ejemplo cuando la vista sale o vuelve a la pantalla
+     * al desplazarse. Debe llamarse desde el hilo principal.
+     *
+     * @param pausada true para dejar de dibujar, false para reanudar.
+     */
+    public void setPausada(boolean pausada) {
+        if (this.pausada == pausada) {
+            return;
+        }
+        this.pausada = pausada;
+        if (handlerRender != null) {
+            handlerRender.post(pausada ? detenerEnRender : iniciarEnRender);
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas de los fotogramas dibujados.
+     *
+     * @return Las estadísticas de la animación.
+     */
+    public EstadisticasFrames getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Hace saltar al personaje al tocar la vista.
+     *
+     * @param event El evento táctil.
+     * @return true si el evento se ha procesado.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            performClick();
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    /**
+     * Hace saltar al personaje (también desde los servicios de accesibilidad).
+     *
+     * @return true siempre.
+     */
+    @Override
+    public boolean performClick() {
+        super.performClick();
+        saltar();
+        return true;
+    }
+
+    /**
+     * Arranca el hilo de render al añadir la vista a la ventana.
+     */
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        hiloRender = new HandlerThread("AnimacionView", Process.THREAD_PRIORITY_DISPLAY);
+        hiloRender.start();
+        handlerRender = new Handler(hiloRender.getLooper());
+        // El Choreographer debe obtenerse desde el propio hilo de render
+        handlerRender.post(() -> choreographer = Choreographer.getInstance());
+    }
+
+    /**
+     * Detiene el bucle y termina el hilo de render al quitar la vista de la ventana.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        handlerRender.post(detenerEnRender);
+        hiloRender.quitSafely();
+    }
+
+    /**
+     * Marca la superficie como disponible para dibujar.
+     *
+     * @param holder El holder de la superficie.
+     */
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        synchronized (lockSuperficie) {
+            superficieValida = true;
+        }
+    }
+
+    /**
+     * Guarda el tamaño de la superficie y (re)inicia el bucle en el hilo de render.
+     *
+     * @param holder El holder de la superficie.
+     * @param format El formato de píxel.
+     * @param width El ancho en píxeles.
+     * @param height El alto en píxeles.
+     */
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        ancho = width;
+        alto = height;
+        handlerRender.post(iniciarEnRender);
+    }
+
+    /**
+     * Deja de dibujar antes de que se destruya la superficie.
+     *
+     * @param holder El holder de la superficie.
+     */
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // Al tomar el lock esperamos a que termine el fotograma en curso antes de liberar la superficie
+        synchronized (lockSuperficie) {
+            superficieValida = false;
+        }
+        handlerRender.post(detenerEnRender);
+    }
+
+    /**
+     * Prepara el atlas y los sprites y arranca el bucle, salvo que la animación esté pausada o aún
+     * no haya superficie. Se ejecuta en el hilo de render.
+     */
+    private void iniciar() {
+        synchronized (lockSuperficie) {
+            if (!superficieValida) {
+                return;
+            }
+        }
+        if (poolFrames == null) {
+            poolFrames = new PoolObjetos<>(MAX_FRAMES, FrameSprite::new);
+            poolSprites = new PoolObjetos<>(MAX_SPRITES + 1, Sprite::new);
+            personaje = poolSprites.obtener();
+        }
+        if (atlasResId != 0 && (atlas == null || atlasCargado != atlasResId)) {
+            atlas = CacheImagenes.getInstance().getBitmap(getResources(), atlasResId, ancho);
+            atlasCargado = atlasResId;
+            // getBitmap devuelve null si el recurso no es un mapa de bits; entonces no se anima
+            if (atlas != null) {
+                crearAnimaciones();
+            }
+        }
+        if (atlas == null || activo || pausada) {
+            return;
+        }
+
+        activo = true;
+        ultimoFrameNs = 0;
+        acumuladoNs = 0;
+        estadisticas.reiniciarVentana();
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Detiene el bucle. Se ejecuta en el hilo de render.
+     */
+    private void detener() {
+        activo = false;
+        if (choreographer != null) {
+            choreographer.removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * Crea los fotogramas de las animaciones a partir de las celdas del atlas, devolviendo al pool
+     * los del atlas anterior.
+     */
+    private void crearAnimaciones() {
+        liberarFrames(reposo);
+        liberarFrames(impulso);
+        liberarFrames(aire);
+        liberarFrames(aterrizaje);
+        reposo = crearAnimacion(DEF_REPOSO);
+        impulso = crearAnimacion(DEF_IMPULSO);
+        aire = crearAnimacion(DEF_AIRE);
+        aterrizaje = crearAnimacion(DEF_ATERRIZAJE);
+
+        estado = REPOSO;
+        personaje.reiniciar();
+        cambiarAnimacion(personaje, reposo);
+    }
+
+    /**
+     * Crea los fotogramas de una animación tomándolos del pool.
+     */
+    private FrameSprite[] crearAnimacion(int[][] definicion) {
+        int anchoCelda = atlas.getWidth() / columnas;
+        int altoCelda = atlas.getHeight() / filas;
+        FrameSprite[] frames = new FrameSprite[definicion.length];
+        for (int i = 0; i < definicion.length; i++) {
+            FrameSprite frame = poolFrames.obtener();
+            int celda = definicion[i][0];
+            int x = (celda % columnas) * anchoCelda;
+            int y = (celda / columnas) * altoCelda;
+            frame.origen.set(x, y, x + anchoCelda, y + altoCelda);
+            frame.escalaY = definicion[i][1] / 1000f;
+            frame.pasos = definicion[i][2];
+            frames[i] = frame;
+        }
+        return frames;
+    }
+
+    /**
+     * Devuelve al pool los fotogramas de una animación.
+     */
+    private void liberarFrames(FrameSprite[] frames) {
+        if (frames != null) {
+            for (FrameSprite frame : frames) {
+                poolFrames.liberar(frame);
+            }
+        }
+    }
+
+    /**
+     * Llamado por el Choreographer en cada refresco de pantalla, en el hilo de render.
+     *
+     * @param frameTimeNanos El instante del refresco.
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!activo) {
+            return;
+        }
+        long intervalo = ultimoFrameNs == 0 ? PASO_NS : frameTimeNanos - ultimoFrameNs;
+        ultimoFrameNs = frameTimeNanos;
+
+        // Avanzamos la lógica en pasos fijos
+        acumuladoNs += Math.min(intervalo, MAX_DELTA_NS);
+        while (acumuladoNs >= PASO_NS) {
+            actualizar();
+            acumuladoNs -= PASO_NS;
+        }
+
+        long inicioRender = System.nanoTime();
+        dibujar(acumuladoNs / (float) PASO_NS);
+        estadisticas.registrar(intervalo, System.nanoTime() - inicioRender);
+
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * Avanza un paso fijo de la lógica: estado del personaje, física del salto y partículas.
+     */
+    private void actualizar() {
+        personaje.yAnterior = personaje.y;
+        boolean animacionTerminada = avanzarFrame(personaje);
+
+        switch (estado) {
+            case REPOSO:
+                if (saltoPendiente) {
+                    estado = IMPULSO;
+                    cambiarAnimacion(personaje, impulso);
+                }
+                break;
+            case IMPULSO:
+                if (animacionTerminada) {
+                    estado = AIRE;
+                    personaje.vy = -VELOCIDAD_SALTO;
+                    cambiarAnimacion(personaje, aire);
+                }
+                break;
+            case AIRE:
+                personaje.vy += GRAVEDAD;
+                personaje.y += personaje.vy;
+                if (personaje.y >= 0) {
+                    personaje.y = 0;
+                    personaje.vy = 0;
+                    estado = ATERRIZAJE;
+                    cambiarAnimacion(personaje, aterrizaje);
+                    generarPolvo();
+                }
+                break;
+            case ATERRIZAJE:
+                if (animacionTerminada) {
+                    estado = REPOSO;
+                    cambiarAnimacion(personaje, reposo);
+                }
+                break;
+        }
+        saltoPendiente = false;
+
+        // Partículas: al terminar su vida vuelven al pool
+        for (int i = numParticulas - 1; i >= 0; i--) {
+            Sprite particula = particulas[i];
+            particula.xAnterior = particula.x;
+            particula.yAnterior = particula.y;
+            particula.x += particula.vx;
+            particula.y += particula.vy;
+            particula.vy += GRAVEDAD * 0.5f;
+            if (--particula.vida <= 0) {
+                poolSprites.liberar(particula);
+                particulas[i] = particulas[--numParticulas];
+                particulas[numParticulas] = null;
+            }
+        }
+    }
+
+    /**
+     * Avanza un paso la animación del sprite.
+     *
+     * @return true si una animación sin bucle acaba de terminar.
+     */
+    private boolean avanzarFrame(Sprite sprite) {
+        if (--sprite.pasosRestantes > 0) {
+            return false;
+        }
+        boolean bucle = sprite.animacion == reposo || sprite.animacion == aire;
+        if (sprite.indiceFrame + 1 < sprite.animacion.length) {
+            sprite.indiceFrame++;
+        } else if (bucle) {
+            sprite.indiceFrame = 0;
+        } else {
+            return true;
+        }
+        sprite.pasosRestantes = sprite.animacion[sprite.indiceFrame].pasos;
+        return false;
+    }
+
+    /**
+     * Empieza una animación desde su primer fotograma.
+     */
+    private void cambiarAnimacion(Sprite sprite, FrameSprite[] animacion) {
+        sprite.animacion = animacion;
+        sprite.indiceFrame = 0;
+        sprite.pasosRestantes = animacion[0].pasos;
+    }
+
+    /**
+     * Lanza partículas de polvo desde los pies del personaje, tomándolas del pool.
+     */
+    private void generarPolvo() {
+        float suelo = alto * (1 - MARGEN_SUELO);
+        for (int i = 0; i < PARTICULAS_POR_ATERRIZAJE && numParticulas < MAX_SPRITES; i++) {
+            Sprite particula = poolSprites.obtener();
+            particula.reiniciar();
+            particula.x = particula.xAnterior = ancho / 2f + (random.nextFloat() - 0.5f) * ancho * 0.3f;
+            particula.y = particula.yAnterior = suelo;
+            particula.vx = (particula.x - ancho / 2f) * 0.04f;
+            particula.vy = -alto * (0.004f + random.nextFloat() * 0.004f);
+            particula.vida = particula.vidaMax = 18 + random.nextInt(10);
+            particulas[numParticulas++] = particula;
+        }
+    }
+
+    /**
+     * Dibuja el estado actual interpolado con el anterior.
+     *
+     * @param alfa La fracción del siguiente paso ya transcurrida, entre 0 y 1.
+     */
+    private void dibujar(float alfa) {
+        synchronized (lockSuperficie) {
+            if (!superficieValida) {
+                return;
+            }
+            SurfaceHolder holder = getHolder();
+            Canvas canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                    ? holder.lockHardwareCanvas()
+                    : holder.lockCanvas();
+            if (canvas == null) {
+                return;
+            }
+            try {
+                pintar(canvas, alfa);
+            } finally {
+                holder.unlockCanvasAndPost(canvas);
+            }
+        }
+    }
+
+    /**
+     * Pinta la sombra, el personaje y las partículas en el canvas.
+     */
+    private void pintar(Canvas canvas, float alfa) {
+        canvas.drawColor(colorFondo);
+
+        FrameSprite frame = personaje.animacion[personaje.indiceFrame];
+        float suelo = alto * (1 - MARGEN_SUELO);
+        float alturaSalto = alto * FRACCION_SALTO;
+        float y = personaje.yAnterior + (personaje.y - personaje.yAnterior) * alfa;
+
+        // Sombra: se encoge cuanto más alto está el personaje
+        float radioSombra = ancho * 0.25f * (1 + y * 0.5f);
+        sombra.set(ancho / 2f - radioSombra, suelo - radioSombra * 0.15f,
+                ancho / 2f + radioSombra, suelo + radioSombra * 0.15f);
+        canvas.drawOval(sombra, pintaSombra);
+
+        // Personaje: la celda se ajusta al espacio libre y se deforma conservando la base
+        float altoBase = alto - alturaSalto - alto * MARGEN_SUELO * 2;
+        float anchoBase = altoBase * frame.origen.width() / frame.origen.height();
+        if (anchoBase > ancho) {
+            altoBase *= ancho / anchoBase;
+            anchoBase = ancho;
+        }
+        float altoSprite = altoBase * frame.escalaY;
+        float anchoSprite = anchoBase / frame.escalaY;
+        float base = suelo + y * alturaSalto;
+        destino.set(ancho / 2f - anchoSprite / 2, base - altoSprite, ancho / 2f + anchoSprite / 2, base);
+        canvas.drawBitmap(atlas, frame.origen, destino, pintaSprite);
+
+        // Polvo
+        float radioPolvo = ancho * 0.025f;
+        for (int i = 0; i < numParticulas; i++) {
+            Sprite particula = particulas[i];
+            pintaPolvo.setAlpha(255 * particula.vida / particula.vidaMax);
+            canvas.drawCircle(particula.xAnterior + (particula.x - particula.xAnterior) * alfa,
+                    particula.yAnterior + (particula.y - particula.yAnterior) * alfa, radioPolvo, pintaPolvo);
+        }
+    }
+}
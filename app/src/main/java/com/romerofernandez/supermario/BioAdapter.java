@@ -0,0 +1,124 @@
+package com.romerofernandez.supermario;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter que muestra la biografía de un personaje en Pantalla2 como una lista de párrafos.
+ *
+ * La lista contiene dos secciones (descripción y habilidades), cada una con su título seguido de
+ * los bloques de texto de {@link TextoPorBloques}. Solo se maquetan los párrafos visibles, así que
+ * el primer fotograma y la memoria no dependen de la longitud de la biografía.
+ */
+public class BioAdapter extends RecyclerView.Adapter<BioAdapter.BioViewHolder> {
+
+    private static final int TIPO_TITULO = 0;
+    private static final int TIPO_PARRAFO = 1;
+
+    private final String tituloDescripcion;
+    private final TextoPorBloques descripcion;
+    private final String tituloHabilidades;
+    private final TextoPorBloques habilidades;
+
+    /**
+     * Constructor del Adapter.
+     *
+     * @param tituloDescripcion El título de la sección de descripción.
+     * @param descripcion La descripción del personaje dividida en bloques.
+     * @param tituloHabilidades El título de la sección de habilidades.
+     * @param habilidades Las habilidades del personaje divididas en bloques.
+     */
+    public BioAdapter(String tituloDescripcion, TextoPorBloques descripcion,
+                      String tituloHabilidades, TextoPorBloques habilidades) {
+        this.tituloDescripcion = tituloDescripcion;
+        this.descripcion = descripcion;
+        this.tituloHabilidades = tituloHabilidades;
+        this.habilidades = habilidades;
+    }
+
+    /**
+     * Obtiene el tipo de vista de una posición: título de sección o párrafo.
+     *
+     * @param position La posición en la lista.
+     * @return {@link #TIPO_TITULO} o {@link #TIPO_PARRAFO}.
+     */
+    @Override
+    public int getItemViewType(int position) {
+        return position == 0 || position == inicioHabilidades() ? TIPO_TITULO : TIPO_PARRAFO;
+    }
+
+    /**
+     * Crea un nuevo ViewHolder con el layout correspondiente al tipo de vista.
+     *
+     * @param parent El ViewGroup que contiene los items del RecyclerView.
+     * @param viewType El tipo de vista.
+     * @return Un nuevo ViewHolder para el item.
+     */
+    @NonNull
+    @Override
+    public BioViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        int layout = viewType == TIPO_TITULO ? R.layout.item_bio_titulo : R.layout.item_bio_parrafo;
+        View itemView = LayoutInflater.from(parent.getContext()).inflate(layout, parent, false);
+        return new BioViewHolder(itemView);
+    }
+
+    /**
+     * Asigna al item el título o el bloque de texto de su posición.
+     *
+     * @param holder El ViewHolder que mantiene la vista del item.
+     * @param position La posición en la lista.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull BioViewHolder holder, int position) {
+        ContadorVinculaciones.registrar();
+        int inicioHabilidades = inicioHabilidades();
+        if (position == 0) {
+            holder.textView.setText(tituloDescripcion);
+        } else if (position < inicioHabilidades) {
+            holder.textView.setText(descripcion.getBloque(position - 1));
+        } else if (position == inicioHabilidades) {
+            holder.textView.setText(tituloHabilidades);
+        } else {
+            holder.textView.setText(habilidades.getBloque(position - inicioHabilidades - 1));
+        }
+    }
+
+    /**
+     * Obtiene el número de items: los dos títulos más todos los bloques de texto.
+     *
+     * @return El número de items de la lista.
+     */
+    @Override
+    public int getItemCount() {
+        return 2 + descripcion.getNumBloques() + habilidades.getNumBloques();
+    }
+
+    /**
+     * Posición del título de la sección de habilidades.
+     */
+    private int inicioHabilidades() {
+        return 1 + descripcion.getNumBloques();
+    }
+
+    /**
+     * ViewHolder de un título o un párrafo de la biografía.
+     */
+    public static class BioViewHolder extends RecyclerView.ViewHolder {
+        public TextView textView;
+
+        /**
+         * Constructor del ViewHolder.
+         *
+         * @param itemView La vista del item, que es un TextView.
+         */
+        public BioViewHolder(View itemView) {
+            super(itemView);
+            textView = (TextView) itemView;
+        }
+    }
+}
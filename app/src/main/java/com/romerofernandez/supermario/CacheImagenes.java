@@ -0,0 +1,245 @@
+package com.romerofernandez.supermario;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.util.SparseIntArray;
+import android.widget.ImageView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Caché en memoria de las imágenes decodificadas de la aplicación.
+ *
+ * Cada imagen se decodifica una sola vez para el ancho con el que se va a dibujar (nunca más grande
+ * que la imagen original) y se comparte entre todos los que la usan. Los bitmaps de la caché no
+ * deben reciclarse ni modificarse.
+ *
+ * Las decodificaciones en segundo plano se anotan mientras están en curso: si se vuelve a pedir la
+ * misma imagen y el mismo ancho antes de que terminen (algo habitual al precargar en cada fotograma
+ * del scroll) no se encola otra decodificación, sino que se espera a la que ya está en marcha.
+ */
+public final class CacheImagenes {
+
+    private static CacheImagenes instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final ExecutorService decodificador;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Ancho original de cada recurso, para no leer las dimensiones del disco en cada petición
+    private final SparseIntArray anchosOriginales = new SparseIntArray();
+
+    // Decodificaciones en curso y los ImageView que esperan cada una; solo se usa desde el hilo principal
+    private final HashMap<String, ArrayList<ImageView>> pendientes = new HashMap<>();
+
+    /**
+     * Obtiene la instancia única de la caché.
+     *
+     * @return La caché compartida.
+     */
+    public static synchronized CacheImagenes getInstance() {
+        if (instance == null) {
+            instance = new CacheImagenes();
+        }
+        return instance;
+    }
+
+    /**
+     * Descarta la instancia única y detiene sus decodificaciones. Solo para pruebas, que necesitan
+     * empezar cada caso con la caché vacía.
+     */
+    static synchronized void reiniciar() {
+        if (instance != null) {
+            instance.decodificador.shutdownNow();
+            instance = null;
+        }
+    }
+
+    private CacheImagenes() {
+        this(Executors.newFixedThreadPool(2));
+    }
+
+    /**
+     * Crea una caché que decodifica con el executor indicado. Solo para pruebas, que ejecutan las
+     * decodificaciones a mano para controlar cuándo terminan.
+     *
+     * @param decodificador El executor de las decodificaciones en segundo plano.
+     */
+    CacheImagenes(ExecutorService decodificador) {
+        this.decodificador = decodificador;
+        // Usamos 1/8 de la memoria disponible para la aplicación, medido en KB
+        int maxKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        cache = new LruCache<String, Bitmap>(maxKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    /**
+     * Obtiene una imagen decodificada con el ancho indicado (o el original, si es menor). Si no está
+     * en caché se decodifica en el hilo que llama, así que no debe usarse desde el hilo principal.
+     *
+     * @param res Los recursos de la aplicación.
+     * @param resId El ID del recurso de la imagen.
+     * @param anchoPx El ancho en píxeles con el que se va a dibujar la imagen.
+     * @return El bitmap decodificado, o null si el recurso no es una imagen.
+     */
+    public Bitmap getBitmap(Resources res, int resId, int anchoPx) {
+        Bitmap bitmap = getBitmapEnMemoria(resId, anchoPx);
+        if (bitmap == null) {
+            bitmap = decodificar(res, resId, anchoPx);
+            if (bitmap != null) {
+                cache.put(clave(resId, anchoPx), bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Obtiene una imagen solo si ya está decodificada en memoria para ese ancho. Nunca accede al disco.
+     *
+     * @param resId El ID del recurso de la imagen.
+     * @param anchoPx El ancho en píxeles con el que se va a dibujar la imagen.
+     * @return El bitmap, o null si no está en caché.
+     */
+    public Bitmap getBitmapEnMemoria(int resId, int anchoPx) {
+        return cache.get(clave(resId, anchoPx));
+    }
+
+    /**
+     * Muestra una imagen en un ImageView. Si no está en memoria se decodifica en segundo plano y se
+     * asigna al terminar, salvo que el ImageView haya pasado a mostrar otra imagen entretanto
+     * (por ejemplo, al reciclarse en un RecyclerView).
+     *
+     * @param imageView El ImageView donde se muestra la imagen.
+     * @param resId El ID del recurso de la imagen.
+     * @param anchoPx El ancho en píxeles con el que se va a dibujar la imagen.
+     */
+    public void cargar(ImageView imageView, int resId, int anchoPx) {
+        Bitmap bitmap = getBitmapEnMemoria(resId, anchoPx);
+        imageView.setTag(R.id.tag_imagen_res, resId);
+        if (bitmap != null) {
+            imageView.setImageBitmap(bitmap);
+            return;
+        }
+
+        imageView.setImageDrawable(null);
+        decodificarEnSegundoPlano(imageView.getResources(), resId, anchoPx, imageView);
+    }
+
+    /**
+     * Decodifica en segundo plano una imagen que se va a necesitar pronto, si no está ya en memoria.
+     *
+     * @param res Los recursos de la aplicación.
+     * @param resId El ID del recurso de la imagen.
+     * @param anchoPx El ancho en píxeles con el que se va a dibujar la imagen.
+     */
+    public void precargar(Resources res, int resId, int anchoPx) {
+        if (getBitmapEnMemoria(resId, anchoPx) == null) {
+            decodificarEnSegundoPlano(res, resId, anchoPx, null);
+        }
+    }
+
+    /**
+     * Encola la decodificación de una imagen, salvo que ya esté en curso para el mismo ancho. Se
+     * llama desde el hilo principal.
+     *
+     * @param destino El ImageView que debe mostrar la imagen al terminar, o null si solo se precarga.
+     */
+    private void decodificarEnSegundoPlano(Resources res, int resId, int anchoPx, ImageView destino) {
+        String clave = clave(resId, anchoPx);
+        ArrayList<ImageView> esperando = pendientes.get(clave);
+        if (esperando == null) {
+            esperando = new ArrayList<>(1);
+            pendientes.put(clave, esperando);
+            decodificador.execute(() -> {
+                Bitmap bitmap = null;
+                try {
+                    bitmap = getBitmap(res, resId, anchoPx);
+                } finally {
+                    // Aunque falle la decodificación hay que quitarla de las pendientes
+                    entregar(clave, resId, bitmap);
+                }
+            });
+        }
+        if (destino != null && !esperando.contains(destino)) {
+            esperando.add(destino);
+        }
+    }
+
+    /**
+     * Marca una decodificación como terminada y asigna el bitmap en el hilo principal a los ImageView
+     * que lo esperaban y siguen mostrando esa imagen.
+     */
+    private void entregar(String clave, int resId, Bitmap bitmap) {
+        mainHandler.post(() -> {
+            ArrayList<ImageView> esperando = pendientes.remove(clave);
+            if (esperando == null || bitmap == null) {
+                return;
+            }
+            for (ImageView imageView : esperando) {
+                Object actual = imageView.getTag(R.id.tag_imagen_res);
+                if (actual != null && (Integer) actual == resId) {
+                    imageView.setImageBitmap(bitmap);
+                }
+            }
+        });
+    }
+
+    private static String clave(int resId, int anchoPx) {
+        return resId + "@" + anchoPx;
+    }
+
+    /**
+     * Decodifica una imagen directamente al ancho pedido: primero se reduce con inSampleSize y
+     * después se escala al decodificar, sin crear nunca un bitmap mayor que el original.
+     */
+    private Bitmap decodificar(Resources res, int resId, int anchoPx) {
+        int anchoOriginal = getAnchoOriginal(res, resId);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inSampleSize = 1;
+        if (anchoPx > 0 && anchoOriginal > 0) {
+            while (anchoOriginal / (options.inSampleSize * 2) >= anchoPx) {
+                options.inSampleSize *= 2;
+            }
+            int anchoMuestreado = anchoOriginal / options.inSampleSize;
+            if (anchoMuestreado > anchoPx) {
+                options.inScaled = true;
+                options.inDensity = anchoMuestreado;
+                options.inTargetDensity = anchoPx;
+            }
+        }
+        return BitmapFactory.decodeResource(res, resId, options);
+    }
+
+    /**
+     * Obtiene el ancho original de un recurso, leyendo sus dimensiones del disco solo la primera vez.
+     */
+    private int getAnchoOriginal(Resources res, int resId) {
+        int anchoOriginal;
+        synchronized (anchosOriginales) {
+            anchoOriginal = anchosOriginales.get(resId, -1);
+        }
+        if (anchoOriginal < 0) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            options.inScaled = false;
+            BitmapFactory.decodeResource(res, resId, options);
+            anchoOriginal = options.outWidth;
+            synchronized (anchosOriginales) {
+                anchosOriginales.put(resId, anchoOriginal);
+            }
+        }
+        return anchoOriginal;
+    }
+}
@@ -0,0 +1,91 @@
+package com.romerofernandez.supermario;
+
+import android.content.Context;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Origen del catálogo de personajes que muestra MainActivity.
+ *
+ * Por defecto devuelve los personajes definidos en los recursos de la aplicación. Las pruebas
+ * pueden sustituir la fuente, por ejemplo por un catálogo sintético de miles de personajes.
+ *
+ * El último catálogo cargado se conserva para que Pantalla2 reciba solo la posición del personaje
+ * en el Intent y lea sus textos de aquí, en lugar de copiar la biografía completa entre actividades.
+ */
+public final class CatalogoPersonajes {
+
+    /**
+     * Interfaz para cargar la lista de personajes.
+     */
+    public interface Fuente {
+        /**
+         * Carga los personajes del catálogo.
+         *
+         * @param context El contexto usado para leer los recursos.
+         * @return La lista de personajes.
+         */
+        List<Personaje> cargar(Context context);
+    }
+
+    private static final Fuente PREDETERMINADA = CatalogoPersonajes::cargarPredeterminados;
+    private static Fuente fuente = PREDETERMINADA;
+    private static List<Personaje> personajes;
+
+    private CatalogoPersonajes() {
+    }
+
+    /**
+     * Carga los personajes de la fuente actual.
+     *
+     * @param context El contexto usado para leer los recursos.
+     * @return La lista de personajes.
+     */
+    public static synchronized List<Personaje> cargar(Context context) {
+        personajes = fuente.cargar(context);
+        return personajes;
+    }
+
+    /**
+     * Obtiene un personaje del último catálogo cargado, cargándolo si aún no se ha hecho (por
+     * ejemplo, si el sistema recrea Pantalla2 tras cerrar el proceso).
+     *
+     * @param context El contexto usado para leer los recursos.
+     * @param indice La posición del personaje en el catálogo.
+     * @return El personaje, o null si la posición no existe.
+     */
+    public static synchronized Personaje get(Context context, int indice) {
+        if (personajes == null) {
+            cargar(context);
+        }
+        return indice >= 0 && indice < personajes.size() ? personajes.get(indice) : null;
+    }
+
+    /**
+     * Sustituye la fuente del catálogo. Con null se vuelve a la fuente predeterminada.
+     *
+     * @param nuevaFuente La nueva fuente, o null.
+     */
+    static synchronized void setFuente(Fuente nuevaFuente) {
+        fuente = nuevaFuente != null ? nuevaFuente : PREDETERMINADA;
+        personajes = null;
+    }
+
+    /**
+     * Carga los personajes con su nombre, imagen, descripción, habilidades y color de fondo.
+     *
+     * @param context El contexto usado para leer los recursos.
+     * @return Una lista de objetos Personaje.
+     */
+    private static List<Personaje> cargarPredeterminados(Context context) {
+        List<Personaje> list = new ArrayList<>();
+        list.add(new Personaje(context.getString(R.string.mario_name), R.drawable.mario, context.getString(R.string.desc_mario), context.getString(R.string.hab_mario), R.drawable.mario2, ContextCompat.getColor(context, R.color.colorMario)));
+        list.add(new Personaje(context.getString(R.string.luigi_name), R.drawable.luigi, context.getString(R.string.desc_luigi), context.getString(R.string.hab_luigi), R.drawable.luigi2, ContextCompat.getColor(context, R.color.colorLuigi)));
+        list.add(new Personaje(context.getString(R.string.peach_name), R.drawable.peach, context.getString(R.string.desc_peach), context.getString(R.string.hab_peach), R.drawable.peach2, ContextCompat.getColor(context, R.color.colorPeach)));
+        list.add(new Personaje(context.getString(R.string.toad_name), R.drawable.toad, context.getString(R.string.desc_toad), context.getString(R.string.hab_toad), R.drawable.toad2, ContextCompat.getColor(context, R.color.colorToad)));
+        return list;
+    }
+}
@@ -0,0 +1,43 @@
+package com.romerofernandez.supermario;
+
+import android.os.Looper;
+
+/**
+ * Instrumentación para las pruebas de rendimiento: cuenta las vinculaciones de items de las listas
+ * hechas en el hilo principal. La aplicación no lo consulta; los adapters lo llaman desde
+ * onBindViewHolder porque las pruebas no pueden interceptar ese método del código de la aplicación.
+ * En producción solo cuesta una comparación y una suma.
+ */
+final class ContadorVinculaciones {
+
+    // Solo se escribe desde el hilo principal
+    private static int vinculaciones;
+
+    private ContadorVinculaciones() {
+    }
+
+    /**
+     * Cuenta una vinculación si se está ejecutando en el hilo principal.
+     */
+    static void registrar() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            vinculaciones++;
+        }
+    }
+
+    /**
+     * Obtiene el número de vinculaciones contadas desde el último reinicio.
+     *
+     * @return El número de vinculaciones.
+     */
+    static int get() {
+        return vinculaciones;
+    }
+
+    /**
+     * Pone el contador a cero.
+     */
+    static void reiniciar() {
+        vinculaciones = 0;
+    }
+}
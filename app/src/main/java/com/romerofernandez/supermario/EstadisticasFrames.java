@@ -0,0 +1,115 @@
+package com.romerofernandez.supermario;
+
+/**
+ * Estadísticas de los últimos fotogramas dibujados por {@link AnimacionView}.
+ *
+ * El hilo de render registra el intervalo entre fotogramas y el tiempo de dibujado de cada uno en
+ * arrays circulares de tamaño fijo, sin crear objetos. Los métodos de consulta pueden llamarse
+ * desde cualquier hilo.
+ */
+public class EstadisticasFrames {
+
+    /**
+     * Número de fotogramas que se tienen en cuenta (unos dos segundos a 60 fps).
+     */
+    private static final int VENTANA = 120;
+
+    /**
+     * Un fotograma se considera lento si el intervalo supera 1,5 veces el de 60 fps.
+     */
+    private static final long UMBRAL_LENTO_NS = 25_000_000L;
+
+    private final long[] intervalosNs = new long[VENTANA];
+    private final long[] rendersNs = new long[VENTANA];
+    private int siguiente = 0;
+    private int numMuestras = 0;
+    private long framesTotales = 0;
+    private long framesLentos = 0;
+
+    /**
+     * Registra un fotograma.
+     *
+     * @param intervaloNs El tiempo transcurrido desde el fotograma anterior, en nanosegundos.
+     * @param renderNs El tiempo dedicado a dibujar el fotograma, en nanosegundos.
+     */
+    public synchronized void registrar(long intervaloNs, long renderNs) {
+        intervalosNs[siguiente] = intervaloNs;
+        rendersNs[siguiente] = renderNs;
+        siguiente = (siguiente + 1) % VENTANA;
+        if (numMuestras < VENTANA) {
+            numMuestras++;
+        }
+        framesTotales++;
+        if (intervaloNs > UMBRAL_LENTO_NS) {
+            framesLentos++;
+        }
+    }
+
+    /**
+     * Obtiene los fotogramas por segundo medios de la ventana actual.
+     *
+     * @return Los fotogramas por segundo, o 0 si aún no hay muestras.
+     */
+    public synchronized float getFps() {
+        long total = 0;
+        for (int i = 0; i < numMuestras; i++) {
+            total += intervalosNs[i];
+        }
+        return total == 0 ? 0 : numMuestras * 1_000_000_000f / total;
+    }
+
+    /**
+     * Obtiene el tiempo medio de dibujado de la ventana actual.
+     *
+     * @return El tiempo medio de dibujado en milisegundos.
+     */
+    public synchronized float getMsRenderMedio() {
+        if (numMuestras == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < numMuestras; i++) {
+            total += rendersNs[i];
+        }
+        return total / (numMuestras * 1_000_000f);
+    }
+
+    /**
+     * Obtiene el mayor intervalo entre fotogramas de la ventana actual.
+     *
+     * @return El mayor intervalo en milisegundos.
+     */
+    public synchronized float getMsIntervaloMaximo() {
+        long maximo = 0;
+        for (int i = 0; i < numMuestras; i++) {
+            maximo = Math.max(maximo, intervalosNs[i]);
+        }
+        return maximo / 1_000_000f;
+    }
+
+    /**
+     * Obtiene el número total de fotogramas dibujados.
+     *
+     * @return El número de fotogramas.
+     */
+    public synchronized long getFramesTotales() {
+        return framesTotales;
+    }
+
+    /**
+     * Obtiene el número total de fotogramas lentos (por encima de 25 ms).
+     *
+     * @return El número de fotogramas lentos.
+     */
+    public synchronized long getFramesLentos() {
+        return framesLentos;
+    }
+
+    /**
+     * Descarta las muestras de la ventana, por ejemplo al reanudar la animación tras una pausa.
+     */
+    public synchronized void reiniciarVentana() {
+        siguiente = 0;
+        numMuestras = 0;
+    }
+}
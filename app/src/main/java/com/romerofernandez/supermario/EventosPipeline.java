@@ -0,0 +1,404 @@
+package com.romerofernandez.supermario;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pipeline de eventos de uso (clics en personajes y tiempos de carga de pantallas).
+ *
+ * Los eventos se registran en un {@link EventosRingBuffer} sin bloquear al hilo que los produce.
+ * Un único hilo de fondo vacía periódicamente el buffer, comprime cada lote con GZIP y lo añade a
+ * un fichero de solo escritura al final (cada lote va precedido de su longitud). Después sube los
+ * lotes acumulados al colector en peticiones agrupadas.
+ *
+ * La contrapresión se aplica en todos los niveles: el buffer descarta eventos cuando está lleno,
+ * el fichero tiene un tamaño máximo, cada subida tiene un límite de bytes y, si el colector falla o
+ * responde 408, 429 o 5xx, las subidas se espacian con un retardo exponencial. Los lotes que el
+ * colector rechaza con cualquier otro error 4xx se descartan, porque reintentarlos no serviría de
+ * nada y bloquearían a los siguientes.
+ *
+ * Esta clase no depende de Android para poder probarse en la JVM contra un colector local.
+ */
+public class EventosPipeline {
+
+    public static final String TIPO_CLICK = "click";
+    public static final String TIPO_CARGA = "carga";
+    public static final String TIPO_FPS = "fps";
+
+    static final int CAPACIDAD_BUFFER = 1024;
+    static final long MAX_BYTES_FICHERO = 1024 * 1024;
+    static final int MAX_BYTES_SUBIDA = 64 * 1024;
+    private static final long BACKOFF_INICIAL_MS = 5_000;
+    private static final long BACKOFF_MAXIMO_MS = 5 * 60_000;
+    private static final int TIMEOUT_MS = 10_000;
+
+    /**
+     * Evento de uso inmutable.
+     */
+    public static class Evento {
+        final String tipo;
+        final String nombre;
+        final long valor;
+        final long fecha;
+
+        /**
+         * Constructor del evento.
+         *
+         * @param tipo El tipo de evento ({@link #TIPO_CLICK}, {@link #TIPO_CARGA} o {@link #TIPO_FPS}).
+         * @param nombre El personaje o la pantalla a la que se refiere el evento.
+         * @param valor Un valor numérico asociado (por ejemplo, el tiempo de carga en milisegundos).
+         * @param fecha El instante del evento en milisegundos.
+         */
+        public Evento(String tipo, String nombre, long valor, long fecha) {
+            this.tipo = tipo;
+            this.nombre = nombre;
+            this.valor = valor;
+            this.fecha = fecha;
+        }
+    }
+
+    private final EventosRingBuffer<Evento> buffer = new EventosRingBuffer<>(CAPACIDAD_BUFFER);
+    private final File fichero;
+    private final URL collectorUrl;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    // Estado de la contrapresión; solo se usa desde el hilo del executor
+    private long backoffMs = 0;
+    private long retryAfterMs = 0;
+    private long proximaSubida = 0;
+    private volatile long lotesDescartados = 0;
+    private volatile long lotesRechazados = 0;
+
+    // true cuando se sabe que el fichero termina en un lote completo; solo se usa desde el executor
+    private boolean ficheroCompleto = false;
+
+    /**
+     * Constructor del pipeline.
+     *
+     * @param fichero El fichero donde se acumulan los lotes comprimidos.
+     * @param collectorUrl La URL del colector, o null para no subir los eventos.
+     */
+    public EventosPipeline(File fichero, URL collectorUrl) {
+        this.fichero = fichero;
+        this.collectorUrl = collectorUrl;
+    }
+
+    /**
+     * Registra un evento sin bloquear.
+     *
+     * @param evento El evento a registrar.
+     * @return false si el buffer estaba lleno y el evento se ha descartado.
+     */
+    public boolean registrar(Evento evento) {
+        return buffer.offer(evento);
+    }
+
+    /**
+     * Programa el procesamiento periódico de los eventos.
+     *
+     * @param periodoMs El intervalo entre procesamientos, en milisegundos.
+     */
+    public void iniciar(long periodoMs) {
+        executor.scheduleWithFixedDelay(this::procesar, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Solicita un procesamiento inmediato en el hilo de fondo.
+     *
+     * @return Un Future que se completa cuando termina el procesamiento.
+     */
+    public Future<?> flush() {
+        return executor.submit(this::procesar);
+    }
+
+    /**
+     * Detiene el hilo de fondo sin esperar a las tareas encoladas. Los eventos que queden en el
+     * buffer se pierden.
+     */
+    public void detener() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Obtiene el número de eventos descartados porque el buffer estaba lleno.
+     *
+     * @return El número de eventos descartados.
+     */
+    public long getEventosDescartados() {
+        return buffer.getDescartados();
+    }
+
+    /**
+     * Obtiene el número de lotes descartados porque el fichero había alcanzado su tamaño máximo.
+     *
+     * @return El número de lotes descartados.
+     */
+    public long getLotesDescartados() {
+        return lotesDescartados;
+    }
+
+    /**
+     * Obtiene el número de lotes descartados porque el colector los rechazó con un error permanente.
+     *
+     * @return El número de lotes rechazados.
+     */
+    public long getLotesRechazados() {
+        return lotesRechazados;
+    }
+
+    /**
+     * Vuelca el buffer a disco y sube los lotes pendientes. Se ejecuta en el hilo del executor.
+     *
+     * Ninguna excepción puede salir de aquí: una ejecución periódica que lanza una excepción cancela
+     * todas las siguientes. Los errores de disco no aplican el retardo de las subidas, porque no
+     * tienen nada que ver con el colector; simplemente se reintenta en la siguiente ejecución.
+     */
+    void procesar() {
+        try {
+            volcarBuffer();
+        } catch (IOException | RuntimeException e) {
+            ficheroCompleto = false;
+        }
+        try {
+            subirLotes();
+        } catch (IOException | RuntimeException e) {
+            ficheroCompleto = false;
+        }
+    }
+
+    /**
+     * Vacía el buffer en un lote comprimido y lo añade al final del fichero.
+     */
+    private void volcarBuffer() throws IOException {
+        Evento evento = buffer.poll();
+        if (evento == null) {
+            return;
+        }
+
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(comprimido), StandardCharsets.UTF_8)) {
+            do {
+                writer.write(evento.tipo);
+                writer.write('\t');
+                writer.write(limpiar(evento.nombre));
+                writer.write('\t');
+                writer.write(Long.toString(evento.valor));
+                writer.write('\t');
+                writer.write(Long.toString(evento.fecha));
+                writer.write('\n');
+            } while ((evento = buffer.poll()) != null);
+        }
+
+        byte[] lote = comprimido.toByteArray();
+        if (!ficheroCompleto) {
+            recortarLoteIncompleto();
+        }
+        if (fichero.length() + 4 + lote.length > MAX_BYTES_FICHERO) {
+            // El colector no da abasto: descartamos el lote en lugar de llenar el disco
+            lotesDescartados++;
+            return;
+        }
+
+        // Si la escritura falla a medias, el siguiente volcado recortará el lote incompleto
+        ficheroCompleto = false;
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(fichero, true))) {
+            out.writeInt(lote.length);
+            out.write(lote);
+        }
+        ficheroCompleto = true;
+    }
+
+    /**
+     * Recorta el fichero al final de su último lote completo. Si la aplicación murió mientras se
+     * añadía un lote, los lotes nuevos quedarían detrás de sus bytes incompletos y al leerlos se
+     * tomarían como parte de él.
+     */
+    private void recortarLoteIncompleto() throws IOException {
+        if (fichero.exists()) {
+            try (RandomAccessFile raf = new RandomAccessFile(fichero, "rw")) {
+                long tamano = raf.length();
+                long fin = 0;
+                while (fin + 4 <= tamano) {
+                    raf.seek(fin);
+                    int longitud = raf.readInt();
+                    if (longitud < 0 || fin + 4 + longitud > tamano) {
+                        break;
+                    }
+                    fin += 4 + longitud;
+                }
+                if (fin < tamano) {
+                    raf.setLength(fin);
+                }
+            }
+        }
+        ficheroCompleto = true;
+    }
+
+    /**
+     * Sube los lotes del fichero al colector en peticiones de hasta {@link #MAX_BYTES_SUBIDA} bytes.
+     * Los lotes subidos o rechazados de forma permanente se eliminan del fichero; el resto se
+     * conserva para el siguiente intento.
+     */
+    private void subirLotes() throws IOException {
+        if (collectorUrl == null || !fichero.exists() || System.currentTimeMillis() < proximaSubida) {
+            return;
+        }
+
+        List<byte[]> lotes = leerLotes();
+        int enviados = 0;
+        while (enviados < lotes.size()) {
+            // Agrupamos varios lotes en una misma petición, respetando el límite de bytes
+            ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(cuerpo);
+            int fin = enviados;
+            while (fin < lotes.size() && (fin == enviados || cuerpo.size() + 4 + lotes.get(fin).length <= MAX_BYTES_SUBIDA)) {
+                out.writeInt(lotes.get(fin).length);
+                out.write(lotes.get(fin));
+                fin++;
+            }
+
+            int codigo;
+            try {
+                codigo = enviar(cuerpo.toByteArray());
+            } catch (IOException | RuntimeException e) {
+                aplicarBackoff();
+                break;
+            }
+            if (esErrorTransitorio(codigo)) {
+                aplicarBackoff();
+                break;
+            }
+            if (codigo >= 400) {
+                // El colector no aceptará nunca estos lotes (por ejemplo, 400 o 413)
+                lotesRechazados += fin - enviados;
+            }
+            backoffMs = 0;
+            enviados = fin;
+        }
+
+        if (enviados > 0) {
+            reescribirFichero(lotes.subList(enviados, lotes.size()));
+        }
+    }
+
+    /**
+     * Envía un cuerpo de petición al colector.
+     *
+     * @param cuerpo Los lotes a enviar, con el mismo formato que el fichero.
+     * @return El código de respuesta HTTP.
+     */
+    private int enviar(byte[] cuerpo) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) collectorUrl.openConnection();
+        try {
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/octet-stream");
+            connection.setFixedLengthStreamingMode(cuerpo.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(cuerpo);
+            }
+            int codigo = connection.getResponseCode();
+            // Respetamos el Retry-After del colector si lo indica (en segundos)
+            retryAfterMs = Math.max(0, connection.getHeaderFieldInt("Retry-After", 0)) * 1000L;
+            return codigo;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Indica si un código de respuesta merece reintentar la subida más tarde: 408, 429, errores del
+     * servidor y cualquier respuesta que no sea un éxito ni un error del cliente.
+     */
+    private static boolean esErrorTransitorio(int codigo) {
+        if (codigo >= 200 && codigo < 300) {
+            return false;
+        }
+        return codigo < 400 || codigo >= 500 || codigo == 408 || codigo == 429;
+    }
+
+    /**
+     * Retrasa la próxima subida duplicando el retardo anterior, o al menos lo que pida el colector.
+     */
+    private void aplicarBackoff() {
+        backoffMs = backoffMs == 0 ? BACKOFF_INICIAL_MS : backoffMs * 2;
+        backoffMs = Math.min(Math.max(backoffMs, retryAfterMs), BACKOFF_MAXIMO_MS);
+        retryAfterMs = 0;
+        proximaSubida = System.currentTimeMillis() + backoffMs;
+    }
+
+    /**
+     * Lee todos los lotes del fichero hasta el primero que no se puede leer completo (por ejemplo,
+     * tras un cierre inesperado de la aplicación). Ese lote y lo que haya detrás se descartan al
+     * reescribir el fichero.
+     */
+    private List<byte[]> leerLotes() throws IOException {
+        List<byte[]> lotes = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fichero))) {
+            while (true) {
+                byte[] lote;
+                try {
+                    int longitud = in.readInt();
+                    if (longitud < 0 || longitud > MAX_BYTES_FICHERO) {
+                        break;
+                    }
+                    lote = new byte[longitud];
+                    in.readFully(lote);
+                } catch (EOFException e) {
+                    break;
+                }
+                lotes.add(lote);
+            }
+        }
+        return lotes;
+    }
+
+    /**
+     * Sustituye el fichero por los lotes que quedan pendientes de subir.
+     */
+    private void reescribirFichero(List<byte[]> pendientes) throws IOException {
+        if (pendientes.isEmpty()) {
+            fichero.delete();
+            return;
+        }
+        File temporal = new File(fichero.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temporal))) {
+            for (byte[] lote : pendientes) {
+                out.writeInt(lote.length);
+                out.write(lote);
+            }
+        }
+        if (!temporal.renameTo(fichero)) {
+            throw new IOException("No se pudo reemplazar " + fichero);
+        }
+    }
+
+    /**
+     * Elimina los separadores del formato de los textos de un evento.
+     */
+    private static String limpiar(String texto) {
+        return texto == null ? "" : texto.replace('\t', ' ').replace('\n', ' ');
+    }
+}
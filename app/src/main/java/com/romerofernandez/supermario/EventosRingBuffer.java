@@ -0,0 +1,82 @@
+package com.romerofernandez.supermario;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular sin bloqueos y de capacidad fija para los eventos de uso.
+ *
+ * Admite varios productores (cualquier hilo puede registrar eventos) y un único consumidor
+ * (el hilo de EventosPipeline que los vuelca a disco). Si el buffer está lleno el evento se
+ * descarta en lugar de bloquear al productor, de forma que el hilo principal nunca espera.
+ *
+ * @param <T> El tipo de los elementos almacenados.
+ */
+public class EventosRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mascara;
+    private final AtomicLong cabeza = new AtomicLong(); // siguiente posición a leer
+    private final AtomicLong cola = new AtomicLong();   // siguiente posición a escribir
+    private final AtomicLong descartados = new AtomicLong();
+
+    /**
+     * Constructor del buffer.
+     *
+     * @param capacidad La capacidad del buffer; debe ser una potencia de dos.
+     */
+    public EventosRingBuffer(int capacidad) {
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser una potencia de dos: " + capacidad);
+        }
+        this.slots = new AtomicReferenceArray<>(capacidad);
+        this.mascara = capacidad - 1;
+    }
+
+    /**
+     * Añade un elemento al buffer sin bloquear.
+     *
+     * @param elemento El elemento a añadir.
+     * @return true si se añadió, false si el buffer estaba lleno y el elemento se descartó.
+     */
+    public boolean offer(T elemento) {
+        while (true) {
+            long posicion = cola.get();
+            if (posicion - cabeza.get() > mascara) {
+                descartados.incrementAndGet();
+                return false;
+            }
+            if (cola.compareAndSet(posicion, posicion + 1)) {
+                slots.set((int) (posicion & mascara), elemento);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Extrae el elemento más antiguo. Solo debe llamarse desde el hilo consumidor.
+     *
+     * @return El elemento extraído, o null si no hay ninguno disponible.
+     */
+    public T poll() {
+        long posicion = cabeza.get();
+        int indice = (int) (posicion & mascara);
+        T elemento = slots.get(indice);
+        if (elemento == null) {
+            // Vacío, o el productor ha reservado la posición pero aún no la ha publicado
+            return null;
+        }
+        slots.set(indice, null);
+        cabeza.lazySet(posicion + 1);
+        return elemento;
+    }
+
+    /**
+     * Obtiene el número de elementos descartados por falta de espacio desde la creación del buffer.
+     *
+     * @return El número de elementos descartados.
+     */
+    public long getDescartados() {
+        return descartados.get();
+    }
+}
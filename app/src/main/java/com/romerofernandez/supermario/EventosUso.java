@@ -0,0 +1,146 @@
+package com.romerofernandez.supermario;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Punto de entrada de la aplicación al {@link EventosPipeline}. Crea el pipeline con el fichero y la
+ * URL del colector configurados y ofrece métodos para registrar clics y tiempos de carga de pantallas.
+ */
+public final class EventosUso {
+
+    /**
+     * Intervalo entre volcados del buffer a disco y subidas al colector.
+     */
+    private static final long PERIODO_PROCESADO_MS = 30_000;
+
+    private static EventosPipeline pipeline;
+
+    private EventosUso() {
+    }
+
+    /**
+     * Obtiene el pipeline compartido, creándolo e iniciándolo la primera vez.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     * @return El pipeline de eventos.
+     */
+    public static synchronized EventosPipeline getPipeline(Context context) {
+        if (pipeline == null) {
+            Context appContext = context.getApplicationContext();
+            pipeline = new EventosPipeline(fichero(appContext), collectorUrl(appContext));
+            pipeline.iniciar(PERIODO_PROCESADO_MS);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Detiene el pipeline compartido y lo descarta, de modo que la siguiente llamada a
+     * {@link #getPipeline(Context)} crea uno nuevo. Solo para pruebas.
+     */
+    static synchronized void reiniciar() {
+        if (pipeline != null) {
+            pipeline.detener();
+            pipeline = null;
+        }
+    }
+
+    /**
+     * Sustituye el pipeline compartido por uno sin colector ni procesado periódico: los eventos se
+     * escriben en disco al hacer flush pero nunca se suben. Solo para pruebas, que en la variante
+     * debug tendrían configurado el colector local.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     */
+    static synchronized void reiniciarSinColector(Context context) {
+        reiniciar();
+        pipeline = new EventosPipeline(fichero(context.getApplicationContext()), null);
+    }
+
+    /**
+     * Registra que el usuario ha pulsado la tarjeta de un personaje.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     * @param nombre El nombre del personaje pulsado.
+     */
+    public static void registrarClick(Context context, String nombre) {
+        getPipeline(context).registrar(new EventosPipeline.Evento(
+                EventosPipeline.TIPO_CLICK, nombre, 0, System.currentTimeMillis()));
+    }
+
+    /**
+     * Mide el tiempo que tarda una pantalla desde su creación hasta que se dibuja por primera vez
+     * y lo registra como evento de carga.
+     *
+     * @param activity La actividad cuya carga se mide.
+     * @param inicio El instante de inicio obtenido con {@link SystemClock#uptimeMillis()}.
+     */
+    public static void medirCarga(Activity activity, long inicio) {
+        String pantalla = activity.getClass().getSimpleName();
+        Context appContext = activity.getApplicationContext();
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                long duracion = SystemClock.uptimeMillis() - inicio;
+                getPipeline(appContext).registrar(new EventosPipeline.Evento(
+                        EventosPipeline.TIPO_CARGA, pantalla, duracion, System.currentTimeMillis()));
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Registra los fotogramas por segundo medios de una animación, si ha llegado a dibujar alguno.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     * @param estadisticas Las estadísticas de la animación.
+     */
+    public static void registrarAnimacion(Context context, EstadisticasFrames estadisticas) {
+        if (estadisticas.getFramesTotales() == 0) {
+            return;
+        }
+        getPipeline(context).registrar(new EventosPipeline.Evento(
+                EventosPipeline.TIPO_FPS, "AnimacionView", Math.round(estadisticas.getFps()), System.currentTimeMillis()));
+    }
+
+    /**
+     * Solicita que los eventos pendientes se escriban y suban cuanto antes.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     */
+    public static void flush(Context context) {
+        getPipeline(context).flush();
+    }
+
+    /**
+     * Fichero donde el pipeline guarda los lotes pendientes de subir.
+     */
+    private static File fichero(Context appContext) {
+        return new File(appContext.getFilesDir(), "eventos.bin");
+    }
+
+    /**
+     * Lee la URL del colector de los recursos. Una cadena vacía desactiva las subidas.
+     */
+    private static URL collectorUrl(Context context) {
+        String url = context.getString(R.string.eventos_collector_url);
+        if (TextUtils.isEmpty(url)) {
+            return null;
+        }
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+}
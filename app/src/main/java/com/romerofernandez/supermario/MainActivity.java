@@ -2,7 +2,9 @@ package com.romerofernandez.supermario;
 
 import android.content.SharedPreferences;
 import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.view.MenuItem;
 import android.view.Menu;
 import android.content.Intent;
@@ -14,16 +16,17 @@ import androidx.navigation.Navigation;
 import androidx.navigation.ui.AppBarConfiguration;
 import androidx.navigation.ui.NavigationUI;
 import androidx.appcompat.app.AlertDialog;
-import androidx.core.content.ContextCompat;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.romerofernandez.supermario.databinding.ActivityMainBinding;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * MainActivity es la actividad principal que gestiona la interfaz de usuario, incluyendo la navegación, la configuración de idioma y la interacción con un RecyclerView que muestra una lista de personajes.
@@ -38,6 +41,13 @@ public class MainActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private PersonajeAdapter personajeAdapter;
     private List<Personaje> personajesList;
+    private PersonajesRepository repository;
+
+    // Número de personajes que se muestran en el filtro de recientes
+    private static final int LIMITE_RECIENTES = 20;
+
+    // Tarjetas fuera de pantalla que se conservan por cada columna sin volver a vincularlas
+    private static final int CACHE_VISTAS_POR_COLUMNA = 2;
 
     /**
      * Método onCreate que inicializa la actividad, configura el idioma, los componentes de la interfaz y muestra una notificación inicial.
@@ -46,6 +56,7 @@ public class MainActivity extends AppCompatActivity {
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long inicio = SystemClock.uptimeMillis();
         super.onCreate(savedInstanceState);
 
         // Inflamos el layout y configuramos el toolbar
@@ -59,6 +70,18 @@ public class MainActivity extends AppCompatActivity {
         initializeDrawerAndNavigation();
         initializeFloatingActionButton();
         showWelcomeSnackbar();
+
+        // Registramos el tiempo hasta el primer dibujado de la pantalla
+        EventosUso.medirCarga(this, inicio);
+    }
+
+    /**
+     * Solicita la subida de los eventos pendientes cuando la pantalla deja de estar visible.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        EventosUso.flush(this);
     }
 
     /**
@@ -71,44 +94,101 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Inicializa el RecyclerView que muestra la lista de personajes.
+     * Inicializa el RecyclerView que muestra la lista de personajes. En pantallas anchas se muestra
+     * como una cuadrícula con varias columnas.
      */
     private void initializeRecyclerView() {
         recyclerView = findViewById(R.id.recyclerView);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+
+        // El número de columnas depende del ancho de la ventana (values-w600dp, values-w1240dp)
+        int columnas = getResources().getInteger(R.integer.columnas_personajes);
+        GridLayoutManager layoutManager = new GridLayoutManager(this, columnas);
+        recyclerView.setLayoutManager(layoutManager);
 
         // Carga los personajes y configura el adaptador
         personajesList = loadPersonajes();
         personajeAdapter = new PersonajeAdapter(personajesList, this::openDetailScreen);
+        personajeAdapter.setAnchoImagen(calcularAnchoImagen(columnas));
         recyclerView.setAdapter(personajeAdapter);
+
+        // Con más columnas caben más tarjetas: la caché de vistas y la precarga crecen con ellas
+        recyclerView.setItemViewCacheSize(CACHE_VISTAS_POR_COLUMNA * columnas);
+        recyclerView.addOnScrollListener(new PrecargaImagenes(layoutManager, personajeAdapter));
+
+        repository = PersonajesRepository.getInstance(this);
+    }
+
+    /**
+     * Muestra solo los personajes marcados como favoritos, del marcado más recientemente al más antiguo.
+     */
+    private void showFavoritos() {
+        repository.cargarFavoritos(favoritos -> personajeAdapter.setPersonajes(buscarPorNombre(favoritos)));
     }
 
     /**
-     * Carga los personajes con su nombre, imagen, descripción, habilidades y color de fondo.
+     * Muestra los personajes abiertos recientemente, del más reciente al más antiguo.
+     */
+    private void showRecientes() {
+        repository.cargarRecientes(LIMITE_RECIENTES, recientes -> personajeAdapter.setPersonajes(buscarPorNombre(recientes)));
+    }
+
+    /**
+     * Devuelve los personajes del catálogo con los nombres indicados, en el mismo orden que los nombres.
+     * Los nombres que ya no están en el catálogo se ignoran.
      *
-     * @return Una lista de objetos Personaje.
+     * @param nombres Los nombres a buscar.
+     * @return La lista de personajes encontrados.
      */
-    private List<Personaje> loadPersonajes() {
+    private List<Personaje> buscarPorNombre(List<String> nombres) {
+        Map<String, Personaje> porNombre = new HashMap<>();
+        for (Personaje personaje : personajesList) {
+            porNombre.put(personaje.getNombre(), personaje);
+        }
         List<Personaje> list = new ArrayList<>();
-        list.add(new Personaje(getString(R.string.mario_name), R.drawable.mario, getString(R.string.desc_mario), getString(R.string.hab_mario), R.drawable.mario2, ContextCompat.getColor(this, R.color.colorMario)));
-        list.add(new Personaje(getString(R.string.luigi_name), R.drawable.luigi, getString(R.string.desc_luigi), getString(R.string.hab_luigi), R.drawable.luigi2, ContextCompat.getColor(this, R.color.colorLuigi)));
-        list.add(new Personaje(getString(R.string.peach_name), R.drawable.peach, getString(R.string.desc_peach), getString(R.string.hab_peach), R.drawable.peach2, ContextCompat.getColor(this, R.color.colorPeach)));
-        list.add(new Personaje(getString(R.string.toad_name), R.drawable.toad, getString(R.string.desc_toad), getString(R.string.hab_toad), R.drawable.toad2, ContextCompat.getColor(this, R.color.colorToad)));
+        for (String nombre : nombres) {
+            Personaje personaje = porNombre.get(nombre);
+            if (personaje != null) {
+                list.add(personaje);
+            }
+        }
         return list;
     }
 
+    /**
+     * Calcula el ancho al que se decodifican las imágenes de las tarjetas a partir del ancho de cada
+     * columna, sin superar el tamaño de la imagen en la tarjeta.
+     *
+     * @param columnas El número de columnas de la cuadrícula.
+     * @return El ancho de la imagen en píxeles.
+     */
+    private int calcularAnchoImagen(int columnas) {
+        Resources res = getResources();
+        int anchoVentana = Math.round(res.getConfiguration().screenWidthDp * res.getDisplayMetrics().density);
+        int anchoColumna = (anchoVentana - recyclerView.getPaddingLeft() - recyclerView.getPaddingRight()) / columnas
+                - 2 * res.getDimensionPixelSize(R.dimen.margen_tarjeta);
+        return Math.max(1, Math.min(res.getDimensionPixelSize(R.dimen.imagen_personaje), anchoColumna));
+    }
+
+    /**
+     * Carga los personajes del catálogo.
+     *
+     * @return Una lista de objetos Personaje.
+     */
+    private List<Personaje> loadPersonajes() {
+        return CatalogoPersonajes.cargar(this);
+    }
+
     /**
      * Abre la pantalla de detalle del personaje seleccionado.
      *
      * @param personaje El personaje seleccionado.
      */
     private void openDetailScreen(Personaje personaje) {
+        EventosUso.registrarClick(this, personaje.getNombre());
+
+        // Solo se envía la posición en el catálogo: Pantalla2 lee la biografía de CatalogoPersonajes
         Intent intent = new Intent(MainActivity.this, Pantalla2.class);
-        intent.putExtra("nombre", personaje.getNombre());
-        intent.putExtra("descripcion", personaje.getDescripcion());
-        intent.putExtra("habilidades", personaje.getHabilidades());
-        intent.putExtra("fotoSecundaria", personaje.getImageSecundariaResId());
-        intent.putExtra("fondo", personaje.getColorFondo());
+        intent.putExtra(Pantalla2.EXTRA_INDICE, personajesList.indexOf(personaje));
         startActivity(intent);
     }
 
@@ -243,6 +323,15 @@ public class MainActivity extends AppCompatActivity {
         if (item.getItemId() == R.id.action_about) {
             showAboutDialog();  // Muestra el cuadro de diálogo "Acerca de"
             return true;
+        } else if (item.getItemId() == R.id.action_todos) {
+            personajeAdapter.setPersonajes(personajesList);
+            return true;
+        } else if (item.getItemId() == R.id.action_favoritos) {
+            showFavoritos();
+            return true;
+        } else if (item.getItemId() == R.id.action_recientes) {
+            showRecientes();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -1,23 +1,37 @@
 package com.romerofernandez.supermario;
 import android.os.Bundle;
+import android.os.SystemClock;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.constraintlayout.widget.ConstraintLayout;
-import androidx.core.content.ContextCompat;
+import androidx.coordinatorlayout.widget.CoordinatorLayout;
+import androidx.recyclerview.widget.RecyclerView;
 
-import android.widget.ImageView;
+import com.google.android.material.appbar.AppBarLayout;
+
+import android.widget.CheckBox;
 import android.widget.TextView;
 import android.widget.Toast;
 
 /**
  * Actividad secundaria que se encarga de mostrar la información detallada de un personaje,
- * como su nombre, imagen secundaria, descripción y habilidades. Recibe estos datos a través de un Intent.
+ * como su nombre, imagen secundaria, descripción y habilidades. Recibe a través del Intent la
+ * posición del personaje en {@link CatalogoPersonajes} y lee de ahí sus datos.
  *
- * La actividad muestra un Toast con el nombre del personaje, ajusta el color de fondo según el Intent,
+ * La actividad muestra un Toast con el nombre del personaje, aplica su color de fondo del catálogo
  * y presenta la información detallada del personaje como su nombre, imagen, descripción y habilidades.
+ * La descripción y las habilidades se muestran como una lista de párrafos (ver {@link BioAdapter})
+ * para que las biografías muy largas no retrasen el primer fotograma.
  * Si la imagen secundaria del personaje no está disponible, se utiliza una imagen predeterminada.
  */
 public class Pantalla2 extends AppCompatActivity {
 
+    /**
+     * Extra del Intent con la posición del personaje en el catálogo.
+     */
+    public static final String EXTRA_INDICE = "indice";
+
+    private PersonajesRepository repository;
+    private AnimacionView animacion;
+
     /**
      * Método que se ejecuta cuando la actividad es creada. Configura la interfaz de usuario y
      * maneja los datos recibidos a través del Intent.
@@ -27,52 +41,97 @@ public class Pantalla2 extends AppCompatActivity {
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long inicio = SystemClock.uptimeMillis();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_pantalla2);
 
-        // Obtener el nombre del personaje desde el Intent
-        String characterName = getIntent().getStringExtra("nombre");
+        // Obtener el personaje del catálogo a partir de la posición recibida en el Intent
+        Personaje personaje = CatalogoPersonajes.get(this, getIntent().getIntExtra(EXTRA_INDICE, -1));
+        if (personaje == null) {
+            finish();
+            return;
+        }
+        String nombre = personaje.getNombre();
 
         // Mostrar el Toast con el nombre del personaje
-        Toast.makeText(this, getString(R.string.toast) + " " + characterName, Toast.LENGTH_SHORT).show();
+        Toast.makeText(this, getString(R.string.toast) + " " + nombre, Toast.LENGTH_SHORT).show();
 
-        // Obtener el ConstraintLayout principal
-        ConstraintLayout mainLayout = findViewById(R.id.mainLayout);
+        // Obtener el layout principal
+        CoordinatorLayout mainLayout = findViewById(R.id.mainLayout);
 
-        // Obtener el color de fondo del Intent (si no se proporciona, usar el color por defecto)
-        // Utilizamos ContextCompat.getColor() para obtener el color del recurso
-        int fondoColorRes = getIntent().getIntExtra("fondo", R.color.fondoMario);
+        // Obtener el color de fondo del personaje
+        int fondoColorRes = personaje.getColorFondo();
 
         // Aplicar el color de fondo a la pantalla
         mainLayout.setBackgroundColor(fondoColorRes);
 
         // Configurar las vistas para mostrar los datos
         TextView name2 = findViewById(R.id.name2);
-        ImageView imagePantalla2 = findViewById(R.id.image_pantalla2);
-        TextView descripcion = findViewById(R.id.descripcion);
-        TextView habilidades = findViewById(R.id.habilidades);
+        animacion = findViewById(R.id.animacion);
+        RecyclerView bio = findViewById(R.id.bio);
 
-        // Obtener datos del Intent
-        String nombre = getIntent().getStringExtra("nombre");
-        String nombreImagen = nombre.toLowerCase() + "2"; // Crear el nombre de la imagen secundaria
-
-        // Obtener la imagen secundaria correspondiente al nombre del personaje
-        int fotoSecundaria = getResources().getIdentifier(nombreImagen, "drawable", getPackageName());
+        // Obtener la imagen secundaria del personaje
+        int fotoSecundaria = personaje.getImageSecundariaResId();
 
         // Si la imagen secundaria no existe, usar una imagen predeterminada
         if (fotoSecundaria == 0) {
             fotoSecundaria = R.drawable.mario2;  // Asegúrate de tener una imagen predeterminada en drawable
         }
 
-        // Obtener los detalles adicionales del personaje desde el Intent
-        String desc = getIntent().getStringExtra("descripcion");
-        String habs = getIntent().getStringExtra("habilidades");
-
         // Configurar las vistas con los datos recibidos
         name2.setText(nombre);
-        imagePantalla2.setImageResource(fotoSecundaria);
-        descripcion.setText(desc);
-        habilidades.setText(habs);
+        // La imagen secundaria se usa como atlas de una sola celda para las animaciones
+        animacion.setAtlas(fotoSecundaria, 1, 1);
+        animacion.setColorFondo(fondoColorRes);
+
+        // La animación se pausa mientras la cabecera está desplazada fuera de la pantalla
+        AppBarLayout appBar = findViewById(R.id.appBar);
+        appBar.addOnOffsetChangedListener((barra, desplazamiento) ->
+                animacion.setPausada(animacion.getBottom() + desplazamiento <= 0));
+
+        // La biografía se lee del catálogo sin copiarla y solo se maquetan los párrafos visibles
+        bio.setHasFixedSize(true);
+        bio.setAdapter(new BioAdapter(getString(R.string.desc), new TextoPorBloques(personaje.getDescripcion()),
+                getString(R.string.hab), new TextoPorBloques(personaje.getHabilidades())));
+
+        // Registrar la visita en el historial (solo al abrir la pantalla, no al recrearla tras
+        // un giro) y mostrar el estado de favorito
+        repository = PersonajesRepository.getInstance(this);
+        if (savedInstanceState == null) {
+            repository.registrarVisita(nombre);
+        }
+        initializeFavorito(nombre);
+
+        // Registramos el tiempo hasta el primer dibujado de la pantalla
+        EventosUso.medirCarga(this, inicio);
+    }
+
+    /**
+     * Carga el estado de favorito del personaje y guarda los cambios cuando el usuario lo marca.
+     * La casilla está desactivada hasta que se conoce el estado guardado, para que una pulsación
+     * anterior no se pierda al asignarlo.
+     *
+     * @param nombre El nombre del personaje mostrado.
+     */
+    private void initializeFavorito(String nombre) {
+        CheckBox favorito = findViewById(R.id.favorito);
+        favorito.setEnabled(false);
+        repository.isFavorito(nombre, esFavorito -> {
+            favorito.setChecked(esFavorito);
+            favorito.setOnCheckedChangeListener((buttonView, isChecked) -> repository.setFavorito(nombre, isChecked));
+            favorito.setEnabled(true);
+        });
+    }
+
+    /**
+     * Escribe las visitas y los eventos pendientes cuando la pantalla deja de estar visible.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        repository.flush();
+        EventosUso.registrarAnimacion(this, animacion.getEstadisticas());
+        EventosUso.flush(this);
     }
 }
 
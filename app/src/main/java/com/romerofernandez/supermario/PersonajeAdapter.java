@@ -30,6 +30,7 @@ public class PersonajeAdapter extends RecyclerView.Adapter<PersonajeAdapter.Pers
     private List<Personaje> personajesList;
     private OnItemClickListener onItemClickListener;
     int[] colores;
+    private int anchoImagenPx; // Ancho al que se decodifican las imágenes (0 = tamaño original)
 
     /**
      * Interfaz para manejar los clics en los elementos del RecyclerView.
@@ -64,6 +65,45 @@ public class PersonajeAdapter extends RecyclerView.Adapter<PersonajeAdapter.Pers
         };
     }
 
+    /**
+     * Establece el ancho al que se decodifican las imágenes de las tarjetas, que depende del ancho
+     * de cada columna.
+     *
+     * @param anchoImagenPx El ancho de la imagen en píxeles.
+     */
+    public void setAnchoImagen(int anchoImagenPx) {
+        this.anchoImagenPx = anchoImagenPx;
+    }
+
+    /**
+     * Obtiene el ancho al que se decodifican las imágenes de las tarjetas.
+     *
+     * @return El ancho de la imagen en píxeles.
+     */
+    public int getAnchoImagen() {
+        return anchoImagenPx;
+    }
+
+    /**
+     * Obtiene el personaje de una posición de la lista.
+     *
+     * @param position La posición del personaje.
+     * @return El personaje de esa posición.
+     */
+    public Personaje getPersonaje(int position) {
+        return personajesList.get(position);
+    }
+
+    /**
+     * Sustituye la lista de personajes mostrada (por ejemplo, al aplicar un filtro).
+     *
+     * @param personajesList La nueva lista de personajes.
+     */
+    public void setPersonajes(List<Personaje> personajesList) {
+        this.personajesList = personajesList;
+        notifyDataSetChanged();
+    }
+
     /**
      * Crea un nuevo ViewHolder para un item del RecyclerView.
      *
@@ -86,6 +126,8 @@ public class PersonajeAdapter extends RecyclerView.Adapter<PersonajeAdapter.Pers
      */
     @Override
     public void onBindViewHolder(PersonajeViewHolder holder, int position) {
+        ContadorVinculaciones.registrar();
+
         // Obtenemos el personaje en la posición actual
         Personaje personaje = personajesList.get(position);
 
@@ -101,8 +143,8 @@ public class PersonajeAdapter extends RecyclerView.Adapter<PersonajeAdapter.Pers
         // Asignamos el color al texto del TextView
         holder.nameTextView.setTextColor(color);
 
-        // Configuramos la imagen del personaje
-        holder.characterImageView.setImageResource(personaje.getImageResId());
+        // Configuramos la imagen del personaje, decodificada al ancho de la columna
+        CacheImagenes.getInstance().cargar(holder.characterImageView, personaje.getImageResId(), anchoImagenPx);
 
         // Configuramos el OnClickListener para el item
         holder.itemView.setOnClickListener(v -> onItemClickListener.onItemClick(personaje));
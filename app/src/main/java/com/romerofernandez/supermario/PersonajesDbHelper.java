@@ -0,0 +1,122 @@
+package com.romerofernandez.supermario;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Helper de SQLite que define el esquema local de la aplicación: la tabla de personajes favoritos,
+ * el historial de personajes abiertos en Pantalla2 y la última visita de cada personaje.
+ *
+ * La base de datos se abre en modo WAL para que las lecturas de la lista no se bloqueen mientras
+ * se escriben visitas. Las consultas de "recientes" y "favoritos" recorren directamente el índice
+ * por fecha, sin agrupar ni ordenar la tabla entera.
+ */
+public class PersonajesDbHelper extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "personajes.db";
+    private static final int DATABASE_VERSION = 2;
+
+    // Tabla de favoritos
+    public static final String TABLA_FAVORITOS = "favoritos";
+    public static final String COL_NOMBRE = "nombre";
+    public static final String COL_FECHA = "fecha";
+
+    // Tabla de historial de visitas
+    public static final String TABLA_HISTORIAL = "historial";
+    public static final String COL_ID = "_id";
+
+    // Tabla con la última visita de cada personaje
+    public static final String TABLA_RECIENTES = "recientes";
+    public static final String COL_ULTIMA = "ultima";
+
+    private static PersonajesDbHelper instance;
+
+    /**
+     * Obtiene la instancia única del helper, asociada al contexto de la aplicación.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     * @return La instancia compartida de PersonajesDbHelper.
+     */
+    public static synchronized PersonajesDbHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new PersonajesDbHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Cierra la base de datos y descarta la instancia compartida. Solo para pruebas.
+     */
+    static synchronized void reiniciar() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    private PersonajesDbHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    /**
+     * Activa el modo WAL antes de abrir la base de datos.
+     *
+     * @param db La base de datos que se está configurando.
+     */
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.enableWriteAheadLogging();
+    }
+
+    /**
+     * Crea las tablas y los índices usados por los filtros de la lista.
+     *
+     * @param db La base de datos recién creada.
+     */
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLA_FAVORITOS + " ("
+                + COL_NOMBRE + " TEXT PRIMARY KEY, "
+                + COL_FECHA + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_favoritos_fecha ON " + TABLA_FAVORITOS + " (" + COL_FECHA + ")");
+
+        db.execSQL("CREATE TABLE " + TABLA_HISTORIAL + " ("
+                + COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COL_NOMBRE + " TEXT NOT NULL, "
+                + COL_FECHA + " INTEGER NOT NULL)");
+
+        crearTablaRecientes(db);
+    }
+
+    /**
+     * Crea la tabla con la última visita de cada personaje. Se actualiza en la misma transacción que
+     * el historial, así que la consulta de recientes solo tiene que leer su índice en orden.
+     */
+    private void crearTablaRecientes(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLA_RECIENTES + " ("
+                + COL_NOMBRE + " TEXT PRIMARY KEY, "
+                + COL_ULTIMA + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_recientes_ultima ON " + TABLA_RECIENTES + " (" + COL_ULTIMA + ")");
+    }
+
+    /**
+     * Migra el esquema entre versiones conservando los favoritos y el historial.
+     *
+     * @param db La base de datos a migrar.
+     * @param oldVersion La versión instalada.
+     * @param newVersion La versión nueva.
+     */
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // La versión 1 calculaba los recientes agrupando el historial completo
+            db.execSQL("DROP INDEX IF EXISTS idx_historial_nombre_fecha");
+            crearTablaRecientes(db);
+            db.execSQL("INSERT INTO " + TABLA_RECIENTES + " (" + COL_NOMBRE + ", " + COL_ULTIMA + ")"
+                    + " SELECT " + COL_NOMBRE + ", MAX(" + COL_FECHA + ") FROM " + TABLA_HISTORIAL
+                    + " GROUP BY " + COL_NOMBRE);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.romerofernandez.supermario;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Repositorio que gestiona los personajes favoritos y el historial de visitas a Pantalla2.
+ *
+ * Todas las operaciones de disco se ejecutan en un único hilo de fondo. Las visitas se encolan en
+ * memoria (write-behind) y se escriben por lotes dentro de una sola transacción, de forma que pulsar
+ * una tarjeta nunca espera al disco. Los resultados de las consultas se entregan en el hilo principal.
+ */
+public class PersonajesRepository {
+
+    /**
+     * Tiempo que se esperan nuevas visitas antes de escribir el lote pendiente.
+     */
+    private static final long FLUSH_DELAY_MS = 500;
+
+    /**
+     * Número máximo de visitas que se conservan en el historial.
+     */
+    private static final int MAX_HISTORIAL = 1000;
+
+    private static PersonajesRepository instance;
+
+    private final PersonajesDbHelper dbHelper;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentLinkedQueue<Visita> visitasPendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushProgramado = new AtomicBoolean(false);
+
+    /**
+     * Interfaz para recibir en el hilo principal el resultado de una consulta.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    public interface Callback<T> {
+        /**
+         * Método que se llama con el resultado de la consulta.
+         *
+         * @param resultado El resultado obtenido de la base de datos.
+         */
+        void onResult(T resultado);
+    }
+
+    /**
+     * Visita pendiente de escribir en el historial.
+     */
+    private static class Visita {
+        final String nombre;
+        final long fecha;
+
+        Visita(String nombre, long fecha) {
+            this.nombre = nombre;
+            this.fecha = fecha;
+        }
+    }
+
+    /**
+     * Obtiene la instancia única del repositorio.
+     *
+     * @param context Un contexto cualquiera de la aplicación.
+     * @return La instancia compartida de PersonajesRepository.
+     */
+    public static synchronized PersonajesRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new PersonajesRepository(PersonajesDbHelper.getInstance(context));
+        }
+        return instance;
+    }
+
+    /**
+     * Detiene el hilo de fondo y descarta la instancia compartida y su base de datos, de modo que
+     * la siguiente llamada a {@link #getInstance(Context)} empieza de cero. Solo para pruebas.
+     */
+    static synchronized void reiniciar() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+        PersonajesDbHelper.reiniciar();
+    }
+
+    private PersonajesRepository(PersonajesDbHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Registra que se ha abierto la pantalla de detalle de un personaje. La visita se encola y se
+     * escribe más tarde junto con el resto del lote.
+     *
+     * @param nombre El nombre del personaje abierto.
+     */
+    public void registrarVisita(String nombre) {
+        visitasPendientes.add(new Visita(nombre, System.currentTimeMillis()));
+        if (flushProgramado.compareAndSet(false, true)) {
+            executor.schedule(this::escribirVisitasPendientes, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Fuerza la escritura inmediata de las visitas pendientes (por ejemplo, al pasar a segundo plano).
+     */
+    public void flush() {
+        executor.execute(this::escribirVisitasPendientes);
+    }
+
+    /**
+     * Marca o desmarca un personaje como favorito.
+     *
+     * @param nombre El nombre del personaje.
+     * @param favorito true para marcarlo como favorito, false para quitarlo.
+     */
+    public void setFavorito(String nombre, boolean favorito) {
+        executor.execute(() -> {
+            SQLiteDatabase db = baseDeDatos();
+            if (favorito) {
+                ContentValues values = new ContentValues();
+                values.put(PersonajesDbHelper.COL_NOMBRE, nombre);
+                values.put(PersonajesDbHelper.COL_FECHA, System.currentTimeMillis());
+                db.insertWithOnConflict(PersonajesDbHelper.TABLA_FAVORITOS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            } else {
+                db.delete(PersonajesDbHelper.TABLA_FAVORITOS, PersonajesDbHelper.COL_NOMBRE + " = ?", new String[]{nombre});
+            }
+        });
+    }
+
+    /**
+     * Consulta si un personaje está marcado como favorito.
+     *
+     * @param nombre El nombre del personaje.
+     * @param callback Recibe true si el personaje es favorito.
+     */
+    public void isFavorito(String nombre, Callback<Boolean> callback) {
+        executor.execute(() -> {
+            boolean favorito;
+            try (Cursor cursor = baseDeDatos().query(PersonajesDbHelper.TABLA_FAVORITOS,
+                    new String[]{PersonajesDbHelper.COL_NOMBRE}, PersonajesDbHelper.COL_NOMBRE + " = ?",
+                    new String[]{nombre}, null, null, null, "1")) {
+                favorito = cursor.moveToFirst();
+            }
+            entregar(callback, favorito);
+        });
+    }
+
+    /**
+     * Carga los nombres de todos los personajes favoritos, del marcado más recientemente al más antiguo.
+     *
+     * @param callback Recibe la lista ordenada de nombres.
+     */
+    public void cargarFavoritos(Callback<List<String>> callback) {
+        executor.execute(() -> {
+            List<String> favoritos = new ArrayList<>();
+            // El índice por fecha incluye el rowid, así que este orden se lee del índice sin ordenar
+            try (Cursor cursor = baseDeDatos().query(PersonajesDbHelper.TABLA_FAVORITOS,
+                    new String[]{PersonajesDbHelper.COL_NOMBRE}, null, null, null, null,
+                    PersonajesDbHelper.COL_FECHA + " DESC, rowid DESC")) {
+                while (cursor.moveToNext()) {
+                    favoritos.add(cursor.getString(0));
+                }
+            }
+            entregar(callback, favoritos);
+        });
+    }
+
+    /**
+     * Carga los personajes abiertos más recientemente, del más reciente al más antiguo.
+     *
+     * @param limite El número máximo de personajes a devolver.
+     * @param callback Recibe la lista ordenada de nombres.
+     */
+    public void cargarRecientes(int limite, Callback<List<String>> callback) {
+        executor.execute(() -> {
+            // Las visitas aún en cola deben aparecer en el resultado
+            escribirVisitasPendientes();
+
+            List<String> recientes = new ArrayList<>();
+            try (Cursor cursor = baseDeDatos().query(PersonajesDbHelper.TABLA_RECIENTES,
+                    new String[]{PersonajesDbHelper.COL_NOMBRE}, null, null, null, null,
+                    PersonajesDbHelper.COL_ULTIMA + " DESC, rowid DESC", String.valueOf(limite))) {
+                while (cursor.moveToNext()) {
+                    recientes.add(cursor.getString(0));
+                }
+            }
+            entregar(callback, recientes);
+        });
+    }
+
+    /**
+     * Vacía la cola de visitas y las inserta todas en una única transacción, actualizando también la
+     * última visita de cada personaje. Se ejecuta siempre en el hilo del executor.
+     */
+    private void escribirVisitasPendientes() {
+        flushProgramado.set(false);
+        if (visitasPendientes.isEmpty()) {
+            return;
+        }
+
+        SQLiteDatabase db = baseDeDatos();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            ContentValues ultima = new ContentValues();
+            Visita visita;
+            while ((visita = visitasPendientes.poll()) != null) {
+                values.put(PersonajesDbHelper.COL_NOMBRE, visita.nombre);
+                values.put(PersonajesDbHelper.COL_FECHA, visita.fecha);
+                db.insert(PersonajesDbHelper.TABLA_HISTORIAL, null, values);
+
+                // Las visitas se encolan en orden, así que la última escrita es la más reciente
+                ultima.put(PersonajesDbHelper.COL_NOMBRE, visita.nombre);
+                ultima.put(PersonajesDbHelper.COL_ULTIMA, visita.fecha);
+                db.insertWithOnConflict(PersonajesDbHelper.TABLA_RECIENTES, null, ultima, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+
+            // Recortamos el historial para que no crezca indefinidamente
+            db.execSQL("DELETE FROM " + PersonajesDbHelper.TABLA_HISTORIAL
+                    + " WHERE " + PersonajesDbHelper.COL_ID + " <= (SELECT " + PersonajesDbHelper.COL_ID
+                    + " FROM " + PersonajesDbHelper.TABLA_HISTORIAL
+                    + " ORDER BY " + PersonajesDbHelper.COL_ID + " DESC LIMIT 1 OFFSET " + MAX_HISTORIAL + ")");
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Abre la base de datos. Debe llamarse solo desde el hilo del executor.
+     */
+    private SQLiteDatabase baseDeDatos() {
+        return dbHelper.getWritableDatabase();
+    }
+
+    /**
+     * Entrega un resultado al callback en el hilo principal.
+     */
+    private <T> void entregar(Callback<T> callback, T resultado) {
+        mainHandler.post(() -> callback.onResult(resultado));
+    }
+}
@@ -0,0 +1,72 @@
+package com.romerofernandez.supermario;
+
+/**
+ * Pool de objetos reutilizables para evitar crear objetos (y provocar recolecciones de basura)
+ * mientras se ejecuta el bucle de animación.
+ *
+ * Los objetos se crean por adelantado al construir el pool. No es seguro entre hilos: debe usarse
+ * siempre desde el mismo hilo (el hilo de render de {@link AnimacionView}).
+ *
+ * @param <T> El tipo de los objetos del pool.
+ */
+public class PoolObjetos<T> {
+
+    /**
+     * Interfaz para crear los objetos del pool.
+     *
+     * @param <T> El tipo de los objetos creados.
+     */
+    public interface Fabrica<T> {
+        /**
+         * Crea un objeto nuevo.
+         *
+         * @return El objeto creado.
+         */
+        T crear();
+    }
+
+    private final Fabrica<T> fabrica;
+    private final Object[] libres;
+    private int numLibres;
+
+    /**
+     * Constructor del pool. Crea todos los objetos de inmediato.
+     *
+     * @param capacidad El número de objetos que se crean y se pueden guardar libres.
+     * @param fabrica La fábrica usada para crear los objetos.
+     */
+    public PoolObjetos(int capacidad, Fabrica<T> fabrica) {
+        this.fabrica = fabrica;
+        this.libres = new Object[capacidad];
+        for (int i = 0; i < capacidad; i++) {
+            libres[i] = fabrica.crear();
+        }
+        this.numLibres = capacidad;
+    }
+
+    /**
+     * Obtiene un objeto libre del pool. Si no queda ninguno se crea uno nuevo.
+     *
+     * @return Un objeto listo para usar.
+     */
+    @SuppressWarnings("unchecked")
+    public T obtener() {
+        if (numLibres == 0) {
+            return fabrica.crear();
+        }
+        T objeto = (T) libres[--numLibres];
+        libres[numLibres] = null;
+        return objeto;
+    }
+
+    /**
+     * Devuelve un objeto al pool para reutilizarlo más tarde.
+     *
+     * @param objeto El objeto que ya no se usa.
+     */
+    public void liberar(T objeto) {
+        if (numLibres < libres.length) {
+            libres[numLibres++] = objeto;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.romerofernandez.supermario;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Listener de scroll que decodifica por adelantado las imágenes de las filas que están a punto de
+ * aparecer, en la dirección del desplazamiento.
+ *
+ * La distancia de precarga se mide en filas, así que el número de imágenes precargadas crece con el
+ * número de columnas de la cuadrícula.
+ */
+public class PrecargaImagenes extends RecyclerView.OnScrollListener {
+
+    /**
+     * Número de filas que se precargan por delante de las visibles.
+     */
+    private static final int FILAS_PRECARGA = 3;
+
+    private final GridLayoutManager layoutManager;
+    private final PersonajeAdapter adapter;
+    private final int distancia;
+
+    /**
+     * Constructor del listener.
+     *
+     * @param layoutManager El layout manager de la cuadrícula.
+     * @param adapter El adapter con los personajes y el ancho de sus imágenes.
+     */
+    public PrecargaImagenes(GridLayoutManager layoutManager, PersonajeAdapter adapter) {
+        this.layoutManager = layoutManager;
+        this.adapter = adapter;
+        this.distancia = FILAS_PRECARGA * layoutManager.getSpanCount();
+    }
+
+    /**
+     * Precarga las imágenes de las siguientes filas cada vez que la lista se desplaza.
+     *
+     * @param recyclerView El RecyclerView desplazado.
+     * @param dx El desplazamiento horizontal.
+     * @param dy El desplazamiento vertical.
+     */
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        int total = adapter.getItemCount();
+        if (total == 0) {
+            return;
+        }
+
+        // Las imágenes ya decodificadas solo cuestan una consulta a la caché en memoria
+        int desde;
+        int hasta;
+        if (dy >= 0) {
+            int ultima = layoutManager.findLastVisibleItemPosition();
+            desde = ultima + 1;
+            hasta = Math.min(ultima + distancia, total - 1);
+        } else {
+            int primera = layoutManager.findFirstVisibleItemPosition();
+            desde = Math.max(primera - distancia, 0);
+            hasta = primera - 1;
+        }
+        if (desde < 0 || desde > hasta) {
+            return;
+        }
+
+        CacheImagenes cache = CacheImagenes.getInstance();
+        for (int i = desde; i <= hasta; i++) {
+            cache.precargar(recyclerView.getResources(), adapter.getPersonaje(i).getImageResId(), adapter.getAnchoImagen());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.romerofernandez.supermario;
+
+import java.util.Arrays;
+
+/**
+ * Divide un texto largo en bloques (párrafos) para poder mostrarlo por partes en un RecyclerView.
+ *
+ * Solo se guardan las posiciones de inicio y fin de cada bloque; el texto de un bloque se extrae
+ * cuando se pide, de forma que la memoria usada no depende de cuántos bloques se muestren. Los
+ * párrafos más largos que {@link #MAX_LONGITUD_BLOQUE} se cortan por el último espacio disponible.
+ */
+public class TextoPorBloques {
+
+    /**
+     * Longitud máxima en caracteres de un bloque.
+     */
+    static final int MAX_LONGITUD_BLOQUE = 1000;
+
+    private final CharSequence texto;
+    private int[] inicios = new int[16];
+    private int[] fines = new int[16];
+    private int numBloques = 0;
+
+    /**
+     * Constructor que calcula los límites de los bloques del texto.
+     *
+     * @param texto El texto completo; puede ser null.
+     */
+    public TextoPorBloques(CharSequence texto) {
+        this.texto = texto == null ? "" : texto;
+        indexar();
+    }
+
+    /**
+     * Obtiene el número de bloques del texto.
+     *
+     * @return El número de bloques.
+     */
+    public int getNumBloques() {
+        return numBloques;
+    }
+
+    /**
+     * Obtiene el texto de un bloque.
+     *
+     * @param indice El índice del bloque.
+     * @return El texto del bloque.
+     */
+    public CharSequence getBloque(int indice) {
+        return texto.subSequence(inicios[indice], fines[indice]);
+    }
+
+    /**
+     * Recorre el texto una vez y guarda los límites de cada bloque. Las líneas vacías se omiten.
+     */
+    private void indexar() {
+        int longitud = texto.length();
+        int inicio = 0;
+        while (inicio < longitud) {
+            // Buscamos el final del párrafo actual
+            int finParrafo = inicio;
+            while (finParrafo < longitud && texto.charAt(finParrafo) != '\n') {
+                finParrafo++;
+            }
+
+            // Cortamos el párrafo en bloques si es demasiado largo
+            int inicioBloque = inicio;
+            while (finParrafo - inicioBloque > MAX_LONGITUD_BLOQUE) {
+                int corte = inicioBloque + MAX_LONGITUD_BLOQUE;
+                while (corte > inicioBloque && !Character.isWhitespace(texto.charAt(corte))) {
+                    corte--;
+                }
+                if (corte == inicioBloque) {
+                    corte = inicioBloque + MAX_LONGITUD_BLOQUE; // Sin espacios: corte forzado
+                }
+                agregarBloque(inicioBloque, corte);
+                inicioBloque = corte;
+                while (inicioBloque < finParrafo && Character.isWhitespace(texto.charAt(inicioBloque))) {
+                    inicioBloque++;
+                }
+            }
+            agregarBloque(inicioBloque, finParrafo);
+
+            inicio = finParrafo + 1;
+        }
+    }
+
+    /**
+     * Añade un bloque si no está vacío, ampliando los arrays si es necesario.
+     */
+    private void agregarBloque(int inicio, int fin) {
+        while (inicio < fin && Character.isWhitespace(texto.charAt(inicio))) {
+            inicio++;
+        }
+        if (inicio == fin) {
+            return;
+        }
+        if (numBloques == inicios.length) {
+            inicios = Arrays.copyOf(inicios, numBloques * 2);
+            fines = Arrays.copyOf(fines, numBloques * 2);
+        }
+        inicios[numBloques] = inicio;
+        fines[numBloques] = fin;
+        numBloques++;
+    }
+}
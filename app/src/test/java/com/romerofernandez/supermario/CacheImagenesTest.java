@@ -0,0 +1,169 @@
+package com.romerofernandez.supermario;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Looper;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Pruebas de las decodificaciones en segundo plano de la caché de imágenes. Las decodificaciones se
+ * encolan en un executor que no las ejecuta hasta que la prueba lo pide, como si siguieran en curso.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CacheImagenesTest {
+
+    private static final int ANCHO = 100;
+
+    private Context context;
+    private Resources res;
+    private ExecutorManual decodificador;
+    private CacheImagenes cache;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        res = context.getResources();
+        decodificador = new ExecutorManual();
+        cache = new CacheImagenes(decodificador);
+    }
+
+    @After
+    public void tearDown() {
+        decodificador.shutdownNow();
+    }
+
+    @Test
+    public void lasPeticionesRepetidasDeLaMismaImagenEncolanUnaSolaDecodificacion() {
+        ImageView imageView = new ImageView(context);
+
+        // Como en el scroll: se precarga en cada fotograma y se vincula la tarjeta antes de que termine
+        cache.precargar(res, R.drawable.mario, ANCHO);
+        cache.precargar(res, R.drawable.mario, ANCHO);
+        cache.cargar(imageView, R.drawable.mario, ANCHO);
+        cache.cargar(imageView, R.drawable.mario, ANCHO);
+        cache.precargar(res, R.drawable.mario, ANCHO);
+        assertEquals(1, decodificador.getPendientes());
+
+        // Otro ancho es otra imagen decodificada
+        cache.precargar(res, R.drawable.mario, ANCHO / 2);
+        assertEquals(2, decodificador.getPendientes());
+
+        decodificador.ejecutarTodas();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        Bitmap bitmap = cache.getBitmapEnMemoria(R.drawable.mario, ANCHO);
+        assertNotNull(bitmap);
+        assertSame(bitmap, getBitmap(imageView));
+
+        // Ya en memoria: ni se encola ni se espera
+        cache.precargar(res, R.drawable.mario, ANCHO);
+        cache.cargar(imageView, R.drawable.mario, ANCHO);
+        assertEquals(0, decodificador.getPendientes());
+        assertSame(bitmap, getBitmap(imageView));
+    }
+
+    @Test
+    public void soloRecibeLaImagenElImageViewQueSigueMostrandola() {
+        ImageView primera = new ImageView(context);
+        ImageView reciclada = new ImageView(context);
+
+        cache.cargar(primera, R.drawable.mario, ANCHO);
+        cache.cargar(reciclada, R.drawable.mario, ANCHO);
+        // La segunda tarjeta se recicla para otro personaje antes de que termine la decodificación
+        cache.cargar(reciclada, R.drawable.luigi, ANCHO);
+        assertEquals(2, decodificador.getPendientes());
+
+        decodificador.ejecutarSiguiente();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertSame(cache.getBitmapEnMemoria(R.drawable.mario, ANCHO), getBitmap(primera));
+        assertNull(reciclada.getDrawable());
+
+        decodificador.ejecutarSiguiente();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertSame(cache.getBitmapEnMemoria(R.drawable.luigi, ANCHO), getBitmap(reciclada));
+        assertSame(cache.getBitmapEnMemoria(R.drawable.mario, ANCHO), getBitmap(primera));
+    }
+
+    private static Bitmap getBitmap(ImageView imageView) {
+        Drawable drawable = imageView.getDrawable();
+        return drawable instanceof BitmapDrawable ? ((BitmapDrawable) drawable).getBitmap() : null;
+    }
+
+    /**
+     * Executor que guarda las tareas y solo las ejecuta, en el hilo de la prueba y por orden de
+     * llegada, cuando se le pide.
+     */
+    private static final class ExecutorManual extends AbstractExecutorService {
+
+        private final List<Runnable> tareas = new ArrayList<>();
+        private boolean detenido;
+
+        @Override
+        public void execute(Runnable tarea) {
+            tareas.add(tarea);
+        }
+
+        int getPendientes() {
+            return tareas.size();
+        }
+
+        void ejecutarSiguiente() {
+            tareas.remove(0).run();
+        }
+
+        void ejecutarTodas() {
+            while (!tareas.isEmpty()) {
+                ejecutarSiguiente();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            detenido = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            detenido = true;
+            List<Runnable> pendientes = new ArrayList<>(tareas);
+            tareas.clear();
+            return pendientes;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return detenido;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return detenido;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return detenido;
+        }
+    }
+}
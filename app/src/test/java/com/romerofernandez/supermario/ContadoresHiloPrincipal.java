@@ -0,0 +1,56 @@
+package com.romerofernandez.supermario;
+
+import android.os.Looper;
+
+/**
+ * Contadores del trabajo que hacen en el hilo principal las clases del framework: inflados de
+ * layouts, decodificaciones de imágenes y accesos a disco. Los registran las sombras de
+ * {@link ShadowsHiloPrincipal}; las vinculaciones de items las cuenta {@link ContadorVinculaciones}.
+ *
+ * Solo se cuentan las operaciones ejecutadas en el hilo principal, que son las que afectan a la
+ * fluidez de la interfaz.
+ */
+final class ContadoresHiloPrincipal {
+
+    static final int INFLADOS = 0;
+    static final int DECODIFICACIONES = 1;
+    static final int LECTURAS_DISCO = 2;
+
+    // Solo se escriben desde el hilo principal
+    private static final int[] contadores = new int[3];
+
+    private ContadoresHiloPrincipal() {
+    }
+
+    /**
+     * Cuenta una operación si se está ejecutando en el hilo principal.
+     *
+     * @param tipo El tipo de operación ({@link #INFLADOS}, {@link #DECODIFICACIONES} o
+     *             {@link #LECTURAS_DISCO}).
+     */
+    static void registrar(int tipo) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            contadores[tipo]++;
+        }
+    }
+
+    /**
+     * Obtiene el número de operaciones de un tipo contadas desde el último reinicio.
+     *
+     * @param tipo El tipo de operación.
+     * @return El número de operaciones.
+     */
+    static int get(int tipo) {
+        return contadores[tipo];
+    }
+
+    /**
+     * Pone a cero todos los contadores, también el de vinculaciones.
+     */
+    static void reiniciar() {
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = 0;
+        }
+        ContadorVinculaciones.reiniciar();
+    }
+}
@@ -0,0 +1,88 @@
+package com.romerofernandez.supermario;
+
+import android.os.Looper;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Pruebas de la cuadrícula de personajes de MainActivity en ventanas anchas: el número de columnas
+ * de cada ancho (values-w600dp, values-w1240dp) y el ancho al que se decodifican las imágenes.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CuadriculaPersonajesTest {
+
+    private ActivityController<MainActivity> controller;
+
+    @Before
+    public void setUp() {
+        EventosUso.reiniciarSinColector(ApplicationProvider.getApplicationContext());
+    }
+
+    @After
+    public void tearDown() {
+        if (controller != null) {
+            controller.pause().stop().destroy();
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        PersonajesRepository.reiniciar();
+        CacheImagenes.reiniciar();
+        EventosUso.reiniciar();
+    }
+
+    @Test
+    @Config(qualifiers = "w600dp-h960dp-xhdpi")
+    public void dosColumnasEnVentanasMedianas() {
+        comprobarCuadricula(2);
+    }
+
+    @Test
+    @Config(qualifiers = "w1240dp-h800dp-xhdpi")
+    public void cuatroColumnasEnVentanasGrandes() {
+        comprobarCuadricula(4);
+    }
+
+    /**
+     * Abre MainActivity y comprueba que las tarjetas se reparten en el número de columnas indicado y
+     * que sus imágenes se decodifican al ancho con el que se dibujan, no al de la columna.
+     */
+    private void comprobarCuadricula(int columnas) {
+        controller = Robolectric.buildActivity(MainActivity.class).setup();
+        shadowOf(Looper.getMainLooper()).idle();
+        MainActivity main = controller.get();
+
+        RecyclerView recyclerView = main.findViewById(R.id.recyclerView);
+        GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
+        assertEquals(columnas, layoutManager.getSpanCount());
+
+        // La primera fila tiene una tarjeta por columna, de izquierda a derecha
+        assertTrue(recyclerView.getChildCount() >= columnas);
+        View primera = recyclerView.getChildAt(0);
+        for (int i = 1; i < columnas; i++) {
+            View tarjeta = recyclerView.getChildAt(i);
+            assertEquals(primera.getTop(), tarjeta.getTop());
+            assertTrue(tarjeta.getLeft() > recyclerView.getChildAt(i - 1).getLeft());
+        }
+
+        PersonajeAdapter adapter = (PersonajeAdapter) recyclerView.getAdapter();
+        ImageView imagen = primera.findViewById(R.id.characterImage);
+        assertEquals(main.getResources().getDimensionPixelSize(R.dimen.imagen_personaje), adapter.getAnchoImagen());
+        assertEquals(imagen.getWidth(), adapter.getAnchoImagen());
+        assertTrue(adapter.getAnchoImagen() <= primera.getWidth());
+    }
+}
@@ -0,0 +1,88 @@
+package com.romerofernandez.supermario;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de las estadísticas de fotogramas de la animación.
+ */
+public class EstadisticasFramesTest {
+
+    private static final long NS_60_FPS = 1_000_000_000L / 60;
+    private static final long NS_30_FPS = 1_000_000_000L / 30;
+    private static final float DELTA = 0.01f;
+
+    @Test
+    public void sinMuestrasTodoEsCero() {
+        EstadisticasFrames estadisticas = new EstadisticasFrames();
+
+        assertEquals(0, estadisticas.getFps(), DELTA);
+        assertEquals(0, estadisticas.getMsRenderMedio(), DELTA);
+        assertEquals(0, estadisticas.getMsIntervaloMaximo(), DELTA);
+        assertEquals(0, estadisticas.getFramesTotales());
+    }
+
+    @Test
+    public void calculaFpsRenderMedioEIntervaloMaximo() {
+        EstadisticasFrames estadisticas = new EstadisticasFrames();
+        for (int i = 0; i < 59; i++) {
+            estadisticas.registrar(NS_60_FPS, 2_000_000);
+        }
+        estadisticas.registrar(NS_30_FPS, 8_000_000);
+
+        // 59 intervalos de 1/60 s y uno de 1/30 s: 60 fotogramas en 61/60 s
+        assertEquals(60 * 60 / 61f, estadisticas.getFps(), DELTA);
+        assertEquals((59 * 2 + 8) / 60f, estadisticas.getMsRenderMedio(), DELTA);
+        assertEquals(NS_30_FPS / 1_000_000f, estadisticas.getMsIntervaloMaximo(), DELTA);
+    }
+
+    @Test
+    public void cuentaComoLentosLosFotogramasDeMasDe25Ms() {
+        EstadisticasFrames estadisticas = new EstadisticasFrames();
+        estadisticas.registrar(NS_60_FPS, 0);
+        estadisticas.registrar(25_000_000, 0);
+        estadisticas.registrar(25_000_001, 0);
+        estadisticas.registrar(NS_30_FPS, 0);
+
+        assertEquals(4, estadisticas.getFramesTotales());
+        assertEquals(2, estadisticas.getFramesLentos());
+    }
+
+    @Test
+    public void laVentanaSoloConservaLosUltimos120Fotogramas() {
+        EstadisticasFrames estadisticas = new EstadisticasFrames();
+        for (int i = 0; i < 120; i++) {
+            estadisticas.registrar(NS_30_FPS, 0);
+        }
+        assertEquals(30, estadisticas.getFps(), DELTA);
+
+        for (int i = 0; i < 120; i++) {
+            estadisticas.registrar(NS_60_FPS, 0);
+        }
+        assertEquals(60, estadisticas.getFps(), DELTA);
+        assertEquals(NS_60_FPS / 1_000_000f, estadisticas.getMsIntervaloMaximo(), DELTA);
+        // Los totales no dependen de la ventana
+        assertEquals(240, estadisticas.getFramesTotales());
+        assertEquals(120, estadisticas.getFramesLentos());
+    }
+
+    @Test
+    public void reiniciarLaVentanaDescartaLasMuestrasPeroNoLosTotales() {
+        EstadisticasFrames estadisticas = new EstadisticasFrames();
+        for (int i = 0; i < 50; i++) {
+            estadisticas.registrar(NS_30_FPS, 1_000_000);
+        }
+        estadisticas.reiniciarVentana();
+        assertEquals(0, estadisticas.getFps(), DELTA);
+        assertEquals(0, estadisticas.getMsRenderMedio(), DELTA);
+
+        for (int i = 0; i < 10; i++) {
+            estadisticas.registrar(NS_60_FPS, 3_000_000);
+        }
+        assertEquals(60, estadisticas.getFps(), DELTA);
+        assertEquals(3, estadisticas.getMsRenderMedio(), DELTA);
+        assertEquals(60, estadisticas.getFramesTotales());
+        assertEquals(50, estadisticas.getFramesLentos());
+    }
+}
@@ -0,0 +1,246 @@
+package com.romerofernandez.supermario;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del pipeline de eventos contra un colector HTTP local que sustituye al real.
+ */
+public class EventosPipelineTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    private HttpServer collector;
+    private final List<String> recibidos = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger codigoRespuesta = new AtomicInteger(200);
+    private URL collectorUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        collector = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        collector.createContext("/eventos", exchange -> {
+            byte[] cuerpo = leer(exchange.getRequestBody());
+            int codigo = codigoRespuesta.get();
+            if (codigo == 200) {
+                recibidos.addAll(decodificar(cuerpo));
+            }
+            exchange.sendResponseHeaders(codigo, -1);
+            exchange.close();
+        });
+        collector.start();
+        collectorUrl = new URL("http://127.0.0.1:" + collector.getAddress().getPort() + "/eventos");
+    }
+
+    @After
+    public void tearDown() {
+        collector.stop(0);
+    }
+
+    @Test
+    public void subeLosEventosYVaciaElFichero() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "MARIO", 0, 1L));
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CARGA, "Pantalla2", 120, 2L));
+        pipeline.flush().get();
+
+        assertEquals(2, recibidos.size());
+        assertEquals("click\tMARIO\t0\t1", recibidos.get(0));
+        assertEquals("carga\tPantalla2\t120\t2", recibidos.get(1));
+        assertFalse(fichero.exists());
+        pipeline.detener();
+    }
+
+    @Test
+    public void conservaLosLotesSiElColectorRechaza() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+        codigoRespuesta.set(503);
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "LUIGI", 0, 1L));
+        pipeline.flush().get();
+
+        assertTrue(recibidos.isEmpty());
+        assertTrue(fichero.length() > 0);
+        pipeline.detener();
+    }
+
+    @Test
+    public void descartaLosLotesRechazadosDeFormaPermanenteSinRetrasarLosSiguientes() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+        codigoRespuesta.set(413);
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "LUIGI", 0, 1L));
+        pipeline.flush().get();
+
+        assertTrue(recibidos.isEmpty());
+        assertFalse(fichero.exists());
+        assertEquals(1, pipeline.getLotesRechazados());
+
+        // Sin retardo: el siguiente lote se sube en el siguiente procesamiento
+        codigoRespuesta.set(200);
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "PEACH", 0, 2L));
+        pipeline.flush().get();
+
+        assertEquals(Collections.singletonList("click\tPEACH\t0\t2"), recibidos);
+        assertFalse(fichero.exists());
+        pipeline.detener();
+    }
+
+    @Test
+    public void conservaLosLotesSiElColectorPideEsperar() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+
+        for (int codigo : new int[]{408, 429}) {
+            codigoRespuesta.set(codigo);
+            pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "TOAD", 0, codigo));
+            pipeline.flush().get();
+        }
+
+        assertTrue(recibidos.isEmpty());
+        assertTrue(fichero.length() > 0);
+        assertEquals(0, pipeline.getLotesRechazados());
+        pipeline.detener();
+    }
+
+    @Test
+    public void descartaEventosConElBufferLleno() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, null);
+
+        for (int i = 0; i < EventosPipeline.CAPACIDAD_BUFFER + 10; i++) {
+            pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "TOAD", 0, i));
+        }
+
+        assertEquals(10, pipeline.getEventosDescartados());
+        pipeline.detener();
+    }
+
+    @Test
+    public void recortaUnLoteIncompletoAntesDeAnadirLotesNuevos() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        // Lote a medio escribir: la cabecera anuncia 100 bytes pero solo hay 3
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(fichero))) {
+            out.writeInt(100);
+            out.write(new byte[]{1, 2, 3});
+        }
+
+        EventosPipeline sinSubidas = new EventosPipeline(fichero, null);
+        for (int i = 0; i < 3; i++) {
+            sinSubidas.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "PEACH", 0, i));
+            sinSubidas.flush().get();
+        }
+        sinSubidas.detener();
+
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+        pipeline.flush().get();
+
+        assertEquals(3, recibidos.size());
+        assertEquals("click\tPEACH\t0\t2", recibidos.get(2));
+        assertFalse(fichero.exists());
+        pipeline.detener();
+    }
+
+    @Test
+    public void unErrorDeDiscoNoRetrasaLasSubidas() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        EventosPipeline pipeline = new EventosPipeline(fichero, collectorUrl);
+
+        // Un directorio con el nombre del fichero hace fallar la escritura
+        assertTrue(fichero.mkdir());
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "MARIO", 0, 1L));
+        pipeline.flush().get();
+        assertTrue(fichero.delete());
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "LUIGI", 0, 2L));
+        pipeline.flush().get();
+
+        assertEquals(1, recibidos.size());
+        assertEquals("click\tLUIGI\t0\t2", recibidos.get(0));
+        pipeline.detener();
+    }
+
+    @Test
+    public void lasEjecucionesPeriodicasSiguenTrasUnaExcepcion() throws Exception {
+        File fichero = new File(carpeta.getRoot(), "eventos.bin");
+        // Una URL que no es HTTP hace que la subida lance una RuntimeException
+        EventosPipeline pipeline = new EventosPipeline(fichero, new URL("file:" + carpeta.getRoot() + "/colector"));
+        pipeline.iniciar(10);
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "TOAD", 0, 1L));
+        esperarTamano(fichero, 1);
+        long tamano = fichero.length();
+
+        pipeline.registrar(new EventosPipeline.Evento(EventosPipeline.TIPO_CLICK, "TOAD", 0, 2L));
+        esperarTamano(fichero, tamano + 1);
+        pipeline.detener();
+    }
+
+    /**
+     * Espera a que el fichero alcance al menos el tamaño indicado.
+     */
+    private static void esperarTamano(File fichero, long minimo) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (fichero.length() < minimo) {
+            assertTrue("El fichero no ha crecido", System.currentTimeMillis() < limite);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Decodifica un cuerpo de petición (lotes GZIP precedidos de su longitud) en líneas de evento.
+     */
+    private static List<String> decodificar(byte[] cuerpo) throws IOException {
+        List<String> lineas = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(cuerpo));
+        while (in.available() > 0) {
+            byte[] lote = new byte[in.readInt()];
+            in.readFully(lote);
+            String texto = new String(leer(new GZIPInputStream(new ByteArrayInputStream(lote))), StandardCharsets.UTF_8);
+            for (String linea : texto.split("\n")) {
+                if (!linea.isEmpty()) {
+                    lineas.add(linea);
+                }
+            }
+        }
+        return lineas;
+    }
+
+    private static byte[] leer(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] tmp = new byte[4096];
+        int n;
+        while ((n = in.read(tmp)) != -1) {
+            out.write(tmp, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
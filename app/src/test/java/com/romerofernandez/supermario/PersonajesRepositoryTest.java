@@ -0,0 +1,205 @@
+package com.romerofernandez.supermario;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Pruebas del repositorio de favoritos e historial y del esquema de la base de datos.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PersonajesRepositoryTest {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private Context context;
+    private PersonajesRepository repository;
+
+    @Before
+    public void setUp() {
+        PersonajesRepository.reiniciar();
+        context = ApplicationProvider.getApplicationContext();
+        repository = PersonajesRepository.getInstance(context);
+    }
+
+    @After
+    public void tearDown() {
+        PersonajesRepository.reiniciar();
+    }
+
+    @Test
+    public void lasVisitasEncoladasSeEscribenJuntasAlHacerFlush() {
+        repository.registrarVisita("MARIO");
+        repository.registrarVisita("LUIGI");
+        repository.registrarVisita("MARIO");
+        repository.flush();
+        esperarHiloDeFondo();
+
+        assertEquals(3, contarFilas(PersonajesDbHelper.TABLA_HISTORIAL));
+        assertEquals(2, contarFilas(PersonajesDbHelper.TABLA_RECIENTES));
+    }
+
+    @Test
+    public void recientesOrdenadosPorUltimaVisita() {
+        repository.registrarVisita("MARIO");
+        repository.registrarVisita("LUIGI");
+        repository.registrarVisita("PEACH");
+        repository.registrarVisita("MARIO");
+
+        // cargarRecientes incluye las visitas que aún estaban en cola
+        List<String> recientes = esperarResultado(callback -> repository.cargarRecientes(10, callback));
+        assertEquals(Arrays.asList("MARIO", "PEACH", "LUIGI"), recientes);
+
+        List<String> limitados = esperarResultado(callback -> repository.cargarRecientes(2, callback));
+        assertEquals(Arrays.asList("MARIO", "PEACH"), limitados);
+    }
+
+    @Test
+    public void elHistorialSeRecortaConservandoLasVisitasMasNuevas() {
+        int visitas = 1005;
+        for (int i = 0; i < visitas; i++) {
+            repository.registrarVisita("P" + i);
+        }
+        repository.flush();
+        esperarHiloDeFondo();
+
+        assertEquals(1000, contarFilas(PersonajesDbHelper.TABLA_HISTORIAL));
+        try (Cursor cursor = baseDeDatos().query(PersonajesDbHelper.TABLA_HISTORIAL,
+                new String[]{PersonajesDbHelper.COL_NOMBRE}, null, null, null, null,
+                PersonajesDbHelper.COL_ID + " ASC", "1")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("P5", cursor.getString(0));
+        }
+
+        // La última visita de cada personaje no depende del recorte del historial
+        assertEquals(visitas, contarFilas(PersonajesDbHelper.TABLA_RECIENTES));
+        List<String> recientes = esperarResultado(callback -> repository.cargarRecientes(3, callback));
+        assertEquals(Arrays.asList("P1004", "P1003", "P1002"), recientes);
+    }
+
+    @Test
+    public void favoritosOrdenadosDelMasRecienteAlMasAntiguo() {
+        repository.setFavorito("MARIO", true);
+        repository.setFavorito("LUIGI", true);
+        repository.setFavorito("PEACH", true);
+        repository.setFavorito("LUIGI", false);
+        repository.setFavorito("MARIO", true);
+
+        List<String> favoritos = esperarResultado(repository::cargarFavoritos);
+        assertEquals(Arrays.asList("MARIO", "PEACH"), favoritos);
+        assertTrue(esperarResultado(callback -> repository.isFavorito("PEACH", callback)));
+        assertFalse(esperarResultado(callback -> repository.isFavorito("LUIGI", callback)));
+    }
+
+    @Test
+    public void lasConsultasDeRecientesYFavoritosRecorrenSuIndice() {
+        esperarHiloDeFondo();
+
+        String recientes = planDeConsulta("SELECT " + PersonajesDbHelper.COL_NOMBRE
+                + " FROM " + PersonajesDbHelper.TABLA_RECIENTES
+                + " ORDER BY " + PersonajesDbHelper.COL_ULTIMA + " DESC, rowid DESC LIMIT 20");
+        assertTrue(recientes, recientes.contains("idx_recientes_ultima"));
+        assertFalse(recientes, recientes.contains("TEMP B-TREE"));
+
+        String favoritos = planDeConsulta("SELECT " + PersonajesDbHelper.COL_NOMBRE
+                + " FROM " + PersonajesDbHelper.TABLA_FAVORITOS
+                + " ORDER BY " + PersonajesDbHelper.COL_FECHA + " DESC, rowid DESC");
+        assertTrue(favoritos, favoritos.contains("idx_favoritos_fecha"));
+        assertFalse(favoritos, favoritos.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void laMigracionDesdeLaVersion1RellenaLosRecientes() {
+        PersonajesRepository.reiniciar();
+        File fichero = context.getDatabasePath("personajes.db");
+        context.deleteDatabase("personajes.db");
+        fichero.getParentFile().mkdirs();
+
+        // Esquema de la versión 1, sin la tabla de recientes
+        SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(fichero, null);
+        v1.execSQL("CREATE TABLE favoritos (nombre TEXT PRIMARY KEY, fecha INTEGER NOT NULL)");
+        v1.execSQL("CREATE TABLE historial (_id INTEGER PRIMARY KEY AUTOINCREMENT, nombre TEXT NOT NULL, fecha INTEGER NOT NULL)");
+        v1.execSQL("CREATE INDEX idx_historial_nombre_fecha ON historial (nombre, fecha)");
+        insertarVisita(v1, "MARIO", 100);
+        insertarVisita(v1, "LUIGI", 200);
+        insertarVisita(v1, "MARIO", 300);
+        v1.setVersion(1);
+        v1.close();
+
+        repository = PersonajesRepository.getInstance(context);
+        List<String> recientes = esperarResultado(callback -> repository.cargarRecientes(10, callback));
+        assertEquals(Arrays.asList("MARIO", "LUIGI"), recientes);
+        assertEquals(3, contarFilas(PersonajesDbHelper.TABLA_HISTORIAL));
+    }
+
+    private static void insertarVisita(SQLiteDatabase db, String nombre, long fecha) {
+        ContentValues values = new ContentValues();
+        values.put("nombre", nombre);
+        values.put("fecha", fecha);
+        db.insert("historial", null, values);
+    }
+
+    private SQLiteDatabase baseDeDatos() {
+        return PersonajesDbHelper.getInstance(context).getWritableDatabase();
+    }
+
+    private long contarFilas(String tabla) {
+        return DatabaseUtils.queryNumEntries(baseDeDatos(), tabla);
+    }
+
+    private String planDeConsulta(String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = baseDeDatos().rawQuery("EXPLAIN QUERY PLAN " + sql, null)) {
+            int detalle = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detalle)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Espera a que el hilo de fondo del repositorio termine todo lo encolado hasta ahora. El
+     * executor es de un solo hilo, así que basta con esperar a una consulta encolada detrás.
+     */
+    private void esperarHiloDeFondo() {
+        esperarResultado(callback -> repository.isFavorito("", callback));
+    }
+
+    /**
+     * Lanza una consulta y ejecuta el hilo principal hasta que su callback recibe el resultado.
+     */
+    private <T> T esperarResultado(Consumer<PersonajesRepository.Callback<T>> consulta) {
+        AtomicReference<T> resultado = new AtomicReference<>();
+        consulta.accept(resultado::set);
+        long limite = System.currentTimeMillis() + TIMEOUT_MS;
+        while (resultado.get() == null) {
+            assertTrue("La consulta no ha terminado", System.currentTimeMillis() < limite);
+            shadowOf(Looper.getMainLooper()).idle();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        return resultado.get();
+    }
+}
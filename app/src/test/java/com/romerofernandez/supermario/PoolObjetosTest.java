@@ -0,0 +1,71 @@
+package com.romerofernandez.supermario;
+
+import org.junit.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas del pool de objetos del bucle de animación.
+ */
+public class PoolObjetosTest {
+
+    private final AtomicInteger creados = new AtomicInteger();
+
+    private PoolObjetos<Object> crearPool(int capacidad) {
+        return new PoolObjetos<>(capacidad, () -> {
+            creados.incrementAndGet();
+            return new Object();
+        });
+    }
+
+    @Test
+    public void creaTodosLosObjetosAlConstruirse() {
+        PoolObjetos<Object> pool = crearPool(4);
+        assertEquals(4, creados.get());
+
+        Map<Object, Boolean> distintos = new IdentityHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            distintos.put(pool.obtener(), true);
+        }
+        assertEquals(4, distintos.size());
+        assertEquals(4, creados.get());
+    }
+
+    @Test
+    public void reutilizaLosObjetosLiberados() {
+        PoolObjetos<Object> pool = crearPool(2);
+
+        for (int i = 0; i < 1000; i++) {
+            Object a = pool.obtener();
+            Object b = pool.obtener();
+            pool.liberar(a);
+            pool.liberar(b);
+        }
+        // En régimen estable no se crea ningún objeto nuevo
+        assertEquals(2, creados.get());
+
+        Object objeto = pool.obtener();
+        pool.liberar(objeto);
+        assertSame(objeto, pool.obtener());
+    }
+
+    @Test
+    public void creaObjetosNuevosSiSeAgotaYNoGuardaMasQueSuCapacidad() {
+        PoolObjetos<Object> pool = crearPool(1);
+        Object primero = pool.obtener();
+        Object extra = pool.obtener();
+        assertNotSame(primero, extra);
+        assertEquals(2, creados.get());
+
+        // Solo cabe uno de los dos al devolverlos; el otro se descarta
+        pool.liberar(primero);
+        pool.liberar(extra);
+        assertSame(primero, pool.obtener());
+        pool.obtener();
+        assertEquals(3, creados.get());
+    }
+}
@@ -0,0 +1,399 @@
+package com.romerofernandez.supermario;
+
+import android.content.Intent;
+import android.graphics.Rect;
+import android.os.Looper;
+import android.view.View;
+
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Pruebas de regresión de rendimiento que se ejecutan en la JVM con Robolectric, sin emulador.
+ *
+ * Recorren el flujo SplashActivity → MainActivity → scroll por un catálogo sintético de 10.000
+ * personajes → Pantalla2, y comprueban en cada fase el trabajo hecho en el hilo principal (inflados,
+ * vinculaciones, decodificaciones de imágenes y lecturas de disco, contados por
+ * {@link ContadorVinculaciones} y las sombras de {@link ShadowsHiloPrincipal}) y la memoria reservada
+ * por ese hilo.
+ *
+ * Los límites no son cifras absolutas, que dependerían de la versión de Robolectric y de la JVM, sino
+ * propiedades del diseño medidas en la propia ejecución: el contenido no decodifica imágenes ni lee
+ * del disco en el hilo principal, solo se inflan y vinculan los items que se ven, el scroll recicla
+ * vistas y la memoria no crece con el tamaño del catálogo ni de la biografía. Para la memoria, el
+ * ruido se mide repitiendo la misma fase. {@link ShadowsHiloPrincipalTest} comprueba que las
+ * regresiones típicas (setImageResource al vincular, abrir la base de datos en onCreate) se cuentan.
+ *
+ * Hasta que se hayan ejecutado en CI no forman parte de la build por defecto: se ejecutan con
+ * {@code ./gradlew testDebugUnitTest -Prendimiento}. Cada fase escribe sus medidas en la salida de la
+ * prueba («RENDIMIENTO ...»).
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "w360dp-h640dp-xhdpi", shadows = {
+        ShadowsHiloPrincipal.LayoutInflaterContado.class,
+        ShadowsHiloPrincipal.BitmapFactoryContado.class,
+        ShadowsHiloPrincipal.ContextImplContado.class,
+        ShadowsHiloPrincipal.SQLiteOpenHelperContado.class})
+@GraphicsMode(GraphicsMode.Mode.LEGACY)
+public class RendimientoTest {
+
+    private static final int TAMANO_CATALOGO = 10_000;
+    // Suficiente para llenar la pantalla, de modo que los dos catálogos muestran las mismas tarjetas
+    private static final int TAMANO_CATALOGO_PEQUENO = 100;
+
+    // configureLanguage lee la preferencia de idioma antes de crear la interfaz; nada más debe leer del disco
+    private static final int ARRANQUE_MAX_LECTURAS_DISCO = 1;
+    // Ningún objeto ocupa menos de 16 bytes: reservar menos por personaje implica no crear objetos por personaje
+    private static final long BYTES_MINIMOS_POR_OBJETO = 16;
+    // Si cada vinculación costara más cuanto más avanzado está el catálogo, la segunda mitad (posición
+    // media 7.500) costaría unas tres veces lo de la primera (posición media 2.500)
+    private static final double SCROLL_MAX_CRECIMIENTO_BYTES_POR_VINCULACION = 1.5;
+
+    private static final int[] IMAGENES = {R.drawable.mario, R.drawable.luigi, R.drawable.peach, R.drawable.toad};
+    private static final int[] IMAGENES_SECUNDARIAS = {R.drawable.mario2, R.drawable.luigi2, R.drawable.peach2, R.drawable.toad2};
+    // Un drawable XML no pasa por BitmapFactory: sirve de referencia para Pantalla2 sin imagen del personaje
+    private static final int[] SIN_IMAGEN_SECUNDARIA = {R.drawable.side_nav_bar};
+
+    private static final String BIO_LARGA = crearBioLarga();
+    private static final String BIO_DOBLE = BIO_LARGA + BIO_LARGA;
+
+    // Los catálogos se crean una sola vez para que cargarlos no reserve memoria durante las medidas.
+    // El pequeño usa otras imágenes para que el grande nunca encuentre las suyas ya decodificadas.
+    private static final List<Personaje> CATALOGO_GRANDE = crearCatalogo(TAMANO_CATALOGO, BIO_LARGA, IMAGENES, IMAGENES_SECUNDARIAS);
+    private static final List<Personaje> CATALOGO_PEQUENO = crearCatalogo(TAMANO_CATALOGO_PEQUENO, BIO_LARGA,
+            IMAGENES_SECUNDARIAS, IMAGENES_SECUNDARIAS);
+
+    private final List<ActivityController<?>> actividades = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        reiniciarEstado();
+    }
+
+    @After
+    public void tearDown() {
+        cerrarActividades();
+        reiniciarEstado();
+        EventosUso.reiniciar();
+    }
+
+    @Test
+    public void arranqueDentroDePresupuesto() {
+        // Calentamiento: carga de clases y cachés de Robolectric
+        medirArranque(CATALOGO_PEQUENO);
+
+        Medida sinTarjetas = medirArranque(Collections.emptyList());
+        Medida pequeno = medirArranque(CATALOGO_PEQUENO);
+        Medida grande = medirArranque(CATALOGO_GRANDE);
+        Medida grandeRepetido = medirArranque(CATALOGO_GRANDE);
+        imprimir("arranque sin tarjetas", sinTarjetas);
+        imprimir("arranque con " + TAMANO_CATALOGO_PEQUENO + " personajes", pequeno);
+        imprimir("arranque con " + TAMANO_CATALOGO + " personajes", grande);
+        imprimir("arranque con " + TAMANO_CATALOGO + " personajes, repetido", grandeRepetido);
+
+        // Como mucho una fila más de las que se ven, la que queda por debajo del borde de la ventana
+        int maxTarjetas = grande.visibles + columnas();
+        assertPresupuesto("arranque: decodificaciones de las tarjetas en el hilo principal",
+                grande.decodificaciones - sinTarjetas.decodificaciones, 0);
+        assertPresupuesto("arranque: inflados de las tarjetas", grande.inflados - sinTarjetas.inflados, maxTarjetas);
+        assertPresupuesto("arranque: vinculaciones", grande.vinculaciones, maxTarjetas);
+        assertPresupuesto("arranque: lecturas de disco en el hilo principal", grande.lecturasDisco, ARRANQUE_MAX_LECTURAS_DISCO);
+
+        long ruido = Math.abs(grandeRepetido.bytes - grande.bytes);
+        assertPresupuesto("arranque: bytes reservados de más por el tamaño del catálogo",
+                grande.bytes - pequeno.bytes,
+                BYTES_MINIMOS_POR_OBJETO * (TAMANO_CATALOGO - TAMANO_CATALOGO_PEQUENO) + 2 * ruido);
+    }
+
+    @Test
+    public void scrollPorTodoElCatalogoDentroDePresupuesto() {
+        CatalogoPersonajes.setFuente(context -> CATALOGO_GRANDE);
+        MainActivity main = arrancarDesdeSplash();
+        RecyclerView recyclerView = main.findViewById(R.id.recyclerView);
+        GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
+        int tarjetasIniciales = recyclerView.getChildCount();
+
+        ContadoresHiloPrincipal.reiniciar();
+        long inicio = bytesReservados();
+        long mitad = -1;
+        int vinculacionesMitad = 0;
+        int infladosMitad = 0;
+
+        int pasos = 0;
+        while (layoutManager.findLastVisibleItemPosition() < TAMANO_CATALOGO - 1 && pasos < TAMANO_CATALOGO) {
+            recyclerView.scrollBy(0, recyclerView.getHeight());
+            avanzarFotograma();
+            pasos++;
+            if (mitad < 0 && layoutManager.findLastVisibleItemPosition() >= TAMANO_CATALOGO / 2) {
+                mitad = bytesReservados();
+                vinculacionesMitad = ContadorVinculaciones.get();
+                infladosMitad = ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.INFLADOS);
+            }
+        }
+
+        long fin = bytesReservados();
+        Medida scroll = new Medida(fin - inicio, contarVisibles(recyclerView));
+        imprimir("scroll", scroll);
+        assertEquals("No se ha llegado al final del catálogo", TAMANO_CATALOGO - 1, layoutManager.findLastVisibleItemPosition());
+        assertPresupuesto("scroll: decodificaciones en el hilo principal", scroll.decodificaciones, 0);
+        assertPresupuesto("scroll: lecturas de disco en el hilo principal", scroll.lecturasDisco, 0);
+        // Pasada la primera mitad, las vistas recicladas bastan para todas las tarjetas
+        assertPresupuesto("scroll: inflados en la segunda mitad del catálogo", scroll.inflados - infladosMitad, 0);
+        // Cada posición se vincula una vez, más como mucho una pantalla de tarjetas precargadas
+        assertPresupuesto("scroll: vinculaciones", scroll.vinculaciones, TAMANO_CATALOGO + tarjetasIniciales);
+
+        // El coste de cada vinculación no debe crecer a medida que se avanza por el catálogo
+        long porVinculacionPrimeraMitad = (mitad - inicio) / Math.max(1, vinculacionesMitad);
+        long porVinculacionSegundaMitad = (fin - mitad) / Math.max(1, scroll.vinculaciones - vinculacionesMitad);
+        System.out.println("RENDIMIENTO scroll: bytes por vinculación en la primera mitad = " + porVinculacionPrimeraMitad
+                + ", en la segunda = " + porVinculacionSegundaMitad);
+        assertPresupuesto("scroll: bytes por vinculación en la segunda mitad del catálogo", porVinculacionSegundaMitad,
+                (long) (Math.max(porVinculacionPrimeraMitad, BYTES_MINIMOS_POR_OBJETO) * SCROLL_MAX_CRECIMIENTO_BYTES_POR_VINCULACION));
+    }
+
+    @Test
+    public void aperturaDePantalla2DentroDePresupuesto() {
+        // Calentamiento: carga de clases y cachés de Robolectric
+        medirApertura(BIO_LARGA, IMAGENES_SECUNDARIAS);
+
+        Medida larga = medirApertura(BIO_LARGA, IMAGENES_SECUNDARIAS);
+        Medida largaRepetida = medirApertura(BIO_LARGA, IMAGENES_SECUNDARIAS);
+        Medida doble = medirApertura(BIO_DOBLE, IMAGENES_SECUNDARIAS);
+        Medida sinImagen = medirApertura(BIO_LARGA, SIN_IMAGEN_SECUNDARIA);
+        imprimir("detalle con biografía larga", larga);
+        imprimir("detalle con biografía larga, repetido", largaRepetida);
+        imprimir("detalle con biografía doble", doble);
+        imprimir("detalle sin imagen del personaje", sinImagen);
+
+        assertTrue("La biografía debe tener más párrafos de los que caben en la pantalla",
+                new TextoPorBloques(BIO_LARGA).getNumBloques() > larga.visibles + 1);
+        assertPresupuesto("detalle: lecturas de disco en el hilo principal", larga.lecturasDisco, 0);
+        assertPresupuesto("detalle: decodificaciones de la imagen del personaje en el hilo principal",
+                larga.decodificaciones - sinImagen.decodificaciones, 0);
+        // Como mucho un párrafo más de los que se ven, el que queda por debajo del borde de la ventana
+        assertPresupuesto("detalle: vinculaciones", larga.vinculaciones, larga.visibles + 1);
+        assertPresupuesto("detalle: inflados de más por la biografía doble", doble.inflados - larga.inflados, 0);
+        assertPresupuesto("detalle: vinculaciones de más por la biografía doble", doble.vinculaciones - larga.vinculaciones, 0);
+
+        // Copiar la biografía costaría al menos un byte por carácter añadido
+        long ruido = Math.abs(largaRepetida.bytes - larga.bytes);
+        assertPresupuesto("detalle: bytes reservados de más por la biografía doble",
+                doble.bytes - larga.bytes, BIO_LARGA.length() / 2 + 2 * ruido);
+    }
+
+    /**
+     * Mide un arranque completo con el catálogo indicado y cierra después todas las actividades.
+     */
+    private Medida medirArranque(List<Personaje> catalogo) {
+        CatalogoPersonajes.setFuente(context -> catalogo);
+        ContadoresHiloPrincipal.reiniciar();
+        long inicio = bytesReservados();
+
+        MainActivity main = arrancarDesdeSplash();
+
+        long bytes = bytesReservados() - inicio;
+        RecyclerView recyclerView = main.findViewById(R.id.recyclerView);
+        Medida medida = new Medida(bytes, contarVisibles(recyclerView));
+        assertEquals("La lista no se ha dibujado", catalogo.isEmpty(), recyclerView.getChildCount() == 0);
+        cerrarActividades();
+        reiniciarEstado();
+        return medida;
+    }
+
+    /**
+     * Arranca la aplicación con un catálogo cuyos personajes tienen la biografía y las imágenes
+     * secundarias indicadas, mide la apertura de Pantalla2 al pulsar la primera tarjeta y cierra
+     * después todas las actividades.
+     */
+    private Medida medirApertura(String bio, int[] imagenesSecundarias) {
+        List<Personaje> catalogo = crearCatalogo(4, bio, IMAGENES, imagenesSecundarias);
+        CatalogoPersonajes.setFuente(context -> catalogo);
+        MainActivity main = arrancarDesdeSplash();
+        RecyclerView recyclerView = main.findViewById(R.id.recyclerView);
+
+        ContadoresHiloPrincipal.reiniciar();
+        long inicio = bytesReservados();
+
+        // Pulsamos la primera tarjeta, como haría el usuario
+        View tarjeta = recyclerView.getChildAt(0);
+        tarjeta.performClick();
+        Intent intent = shadowOf(main).getNextStartedActivity();
+        assertNotNull("No se ha abierto Pantalla2", intent);
+        assertEquals(Pantalla2.class.getName(), intent.getComponent().getClassName());
+
+        ActivityController<Pantalla2> detalle = Robolectric.buildActivity(Pantalla2.class, intent).setup();
+        actividades.add(detalle);
+        avanzarFotograma();
+
+        long bytes = bytesReservados() - inicio;
+        Medida medida = new Medida(bytes, contarVisibles(detalle.get().findViewById(R.id.bio)));
+        cerrarActividades();
+        reiniciarEstado();
+        return medida;
+    }
+
+    /**
+     * Lanza SplashActivity, espera a que abra MainActivity y la muestra hasta su primer dibujado.
+     */
+    private MainActivity arrancarDesdeSplash() {
+        ActivityController<SplashActivity> splash = Robolectric.buildActivity(SplashActivity.class).setup();
+        actividades.add(splash);
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(3000));
+
+        Intent intent = shadowOf(splash.get()).getNextStartedActivity();
+        assertNotNull("SplashActivity no ha abierto MainActivity", intent);
+        assertEquals(MainActivity.class.getName(), intent.getComponent().getClassName());
+
+        ActivityController<MainActivity> main = Robolectric.buildActivity(MainActivity.class, intent).setup();
+        actividades.add(main);
+        avanzarFotograma();
+        return main.get();
+    }
+
+    /**
+     * Destruye las actividades abiertas por la prueba, de la última a la primera.
+     */
+    private void cerrarActividades() {
+        for (int i = actividades.size() - 1; i >= 0; i--) {
+            ActivityController<?> actividad = actividades.get(i);
+            if (!actividad.get().isDestroyed()) {
+                actividad.pause().stop().destroy();
+            }
+        }
+        actividades.clear();
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Descarta los singletons del proceso para que cada arranque empiece sin cachés, hilos ni base
+     * de datos abiertos por el anterior.
+     */
+    private static void reiniciarEstado() {
+        PersonajesRepository.reiniciar();
+        CacheImagenes.reiniciar();
+        // Sin colector: los flush de onStop no deben hacer peticiones HTTP durante la prueba
+        EventosUso.reiniciarSinColector(ApplicationProvider.getApplicationContext());
+        CatalogoPersonajes.setFuente(null);
+        ContadoresHiloPrincipal.reiniciar();
+    }
+
+    /**
+     * Ejecuta las tareas pendientes del hilo principal durante un fotograma.
+     */
+    private static void avanzarFotograma() {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(16));
+    }
+
+    /**
+     * Cuenta los items de una lista que se ven, aunque sea en parte, en la ventana.
+     */
+    private static int contarVisibles(RecyclerView recyclerView) {
+        Rect visible = new Rect();
+        int visibles = 0;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            if (recyclerView.getChildAt(i).getGlobalVisibleRect(visible)) {
+                visibles++;
+            }
+        }
+        return visibles;
+    }
+
+    private static int columnas() {
+        return ApplicationProvider.getApplicationContext().getResources().getInteger(R.integer.columnas_personajes);
+    }
+
+    private static void assertPresupuesto(String medida, long valor, long maximo) {
+        assertTrue(medida + " = " + valor + " (máximo " + maximo + ")", valor <= maximo);
+    }
+
+    private static void imprimir(String fase, Medida medida) {
+        System.out.println("RENDIMIENTO " + fase + ": " + medida);
+    }
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual, que en Robolectric es el hilo principal.
+     */
+    private static long bytesReservados() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Crea un catálogo sintético que reutiliza las imágenes de los personajes reales. La biografía
+     * es la misma para todos.
+     */
+    private static List<Personaje> crearCatalogo(int tamano, String bio, int[] imagenes, int[] imagenesSecundarias) {
+        int[] colores = {0xFFE53935, 0xFF43A047, 0xFFEC407A, 0xFF1E88E5};
+
+        List<Personaje> catalogo = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            catalogo.add(new Personaje("PERSONAJE " + i, imagenes[i % imagenes.length], bio, "Salto\nFuerza\nVelocidad",
+                    imagenesSecundarias[i % imagenesSecundarias.length], colores[i % colores.length]));
+        }
+        return catalogo;
+    }
+
+    /**
+     * Crea una biografía de unos 45.000 caracteres repartida en párrafos.
+     */
+    private static String crearBioLarga() {
+        StringBuilder bio = new StringBuilder();
+        for (int parrafo = 0; parrafo < 80; parrafo++) {
+            for (int frase = 0; frase < 8; frase++) {
+                bio.append("En la entrada ").append(parrafo).append(" de la leyenda, el personaje recorre el Reino Champiñón. ");
+            }
+            bio.append('\n');
+        }
+        return bio.toString();
+    }
+
+    /**
+     * Trabajo hecho en el hilo principal durante una fase: los contadores de
+     * {@link ContadoresHiloPrincipal} y {@link ContadorVinculaciones} en el momento de crearla, los
+     * bytes reservados y los items de la lista medida que se ven al terminar.
+     */
+    private static final class Medida {
+
+        final int inflados;
+        final int vinculaciones;
+        final int decodificaciones;
+        final int lecturasDisco;
+        final long bytes;
+        final int visibles;
+
+        Medida(long bytes, int visibles) {
+            this.inflados = ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.INFLADOS);
+            this.vinculaciones = ContadorVinculaciones.get();
+            this.decodificaciones = ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.DECODIFICACIONES);
+            this.lecturasDisco = ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO);
+            this.bytes = bytes;
+            this.visibles = visibles;
+        }
+
+        @Override
+        public String toString() {
+            return "inflados=" + inflados + ", vinculaciones=" + vinculaciones + ", decodificaciones=" + decodificaciones
+                    + ", lecturasDisco=" + lecturasDisco + ", bytes=" + bytes + ", visibles=" + visibles;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.romerofernandez.supermario;
+
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Rect;
+import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.annotation.RealObject;
+import org.robolectric.shadows.ShadowBitmapFactory;
+import org.robolectric.shadows.ShadowContextImpl;
+import org.robolectric.shadows.ShadowSQLiteOpenHelper;
+import org.robolectric.util.reflector.Direct;
+import org.robolectric.util.reflector.ForType;
+
+import java.io.FileDescriptor;
+import java.io.InputStream;
+
+import static org.robolectric.util.reflector.Reflector.reflector;
+
+/**
+ * Sombras de Robolectric que cuentan en {@link ContadoresHiloPrincipal} el trabajo que hacen en el hilo
+ * principal las clases del framework: inflados de layouts, decodificaciones de imágenes (también las
+ * de los recursos que se cargan con setImageResource o desde un XML), lecturas de preferencias y
+ * aperturas de la base de datos. Así se cuenta aunque la llamada no pase por el código de la
+ * aplicación. Cada sombra se limita a contar y delega en la implementación que usaría Robolectric.
+ *
+ * Se activan con {@code @Config(shadows = {...})} y requieren el modo gráfico LEGACY, que es el de
+ * las sombras de las que heredan.
+ */
+public final class ShadowsHiloPrincipal {
+
+    private ShadowsHiloPrincipal() {
+    }
+
+    /**
+     * Cuenta cada layout inflado, tanto el de las actividades y fragments como el de los items.
+     */
+    @Implements(LayoutInflater.class)
+    public static class LayoutInflaterContado {
+
+        @RealObject
+        private LayoutInflater realLayoutInflater;
+
+        @Implementation
+        protected View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+            ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.INFLADOS);
+            return reflector(LayoutInflaterReflector.class, realLayoutInflater).inflate(resource, root, attachToRoot);
+        }
+    }
+
+    @ForType(LayoutInflater.class)
+    interface LayoutInflaterReflector {
+
+        @Direct
+        View inflate(int resource, ViewGroup root, boolean attachToRoot);
+    }
+
+    /**
+     * Cuenta las decodificaciones con BitmapFactory. Leer solo las dimensiones (inJustDecodeBounds)
+     * se cuenta como lectura de disco y no como decodificación. En el modo LEGACY, ImageDecoder también
+     * decodifica con BitmapFactory, así que se cuentan además las imágenes que cargan los recursos
+     * (setImageResource, getDrawable o los layouts).
+     */
+    @Implements(BitmapFactory.class)
+    public static class BitmapFactoryContado extends ShadowBitmapFactory {
+
+        @Implementation
+        protected static Bitmap decodeResourceStream(Resources res, TypedValue value, InputStream is, Rect pad,
+                                                     BitmapFactory.Options opts) {
+            contarDecodificacion(opts);
+            return ShadowBitmapFactory.decodeResourceStream(res, value, is, pad, opts);
+        }
+
+        @Implementation
+        protected static Bitmap decodeResource(Resources res, int id, BitmapFactory.Options options) {
+            contarDecodificacion(options);
+            return ShadowBitmapFactory.decodeResource(res, id, options);
+        }
+
+        @Implementation
+        protected static Bitmap decodeFile(String pathName) {
+            contarDecodificacion(null);
+            return ShadowBitmapFactory.decodeFile(pathName);
+        }
+
+        @Implementation
+        protected static Bitmap decodeFile(String pathName, BitmapFactory.Options options) {
+            contarDecodificacion(options);
+            return ShadowBitmapFactory.decodeFile(pathName, options);
+        }
+
+        @Implementation
+        protected static Bitmap decodeFileDescriptor(FileDescriptor fd, Rect outPadding, BitmapFactory.Options opts) {
+            contarDecodificacion(opts);
+            return ShadowBitmapFactory.decodeFileDescriptor(fd, outPadding, opts);
+        }
+
+        @Implementation
+        protected static Bitmap decodeStream(InputStream is) {
+            contarDecodificacion(null);
+            return ShadowBitmapFactory.decodeStream(is);
+        }
+
+        @Implementation
+        protected static Bitmap decodeStream(InputStream is, Rect outPadding, BitmapFactory.Options opts) {
+            contarDecodificacion(opts);
+            return ShadowBitmapFactory.decodeStream(is, outPadding, opts);
+        }
+
+        @Implementation
+        protected static Bitmap decodeByteArray(byte[] data, int offset, int length) {
+            contarDecodificacion(null);
+            return ShadowBitmapFactory.decodeByteArray(data, offset, length);
+        }
+
+        @Implementation
+        protected static Bitmap decodeByteArray(byte[] data, int offset, int length, BitmapFactory.Options opts) {
+            contarDecodificacion(opts);
+            return ShadowBitmapFactory.decodeByteArray(data, offset, length, opts);
+        }
+
+        private static void contarDecodificacion(BitmapFactory.Options options) {
+            if (options != null && options.inJustDecodeBounds) {
+                ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.LECTURAS_DISCO);
+            } else {
+                ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.DECODIFICACIONES);
+            }
+        }
+    }
+
+    /**
+     * Cuenta cada acceso a unas preferencias compartidas como lectura de disco: la primera vez
+     * se leen del fichero y las siguientes esperan a que esa lectura termine.
+     */
+    @Implements(className = "android.app.ContextImpl")
+    public static class ContextImplContado extends ShadowContextImpl {
+
+        @Override
+        @Implementation
+        protected SharedPreferences getSharedPreferences(String name, int mode) {
+            ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.LECTURAS_DISCO);
+            return super.getSharedPreferences(name, mode);
+        }
+    }
+
+    /**
+     * Cuenta cada apertura de la base de datos como lectura de disco.
+     */
+    @Implements(SQLiteOpenHelper.class)
+    public static class SQLiteOpenHelperContado extends ShadowSQLiteOpenHelper {
+
+        @RealObject
+        private SQLiteOpenHelper realSQLiteOpenHelper;
+
+        @Implementation
+        protected SQLiteDatabase getWritableDatabase() {
+            ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.LECTURAS_DISCO);
+            return reflector(SQLiteOpenHelperReflector.class, realSQLiteOpenHelper).getWritableDatabase();
+        }
+
+        @Implementation
+        protected SQLiteDatabase getReadableDatabase() {
+            ContadoresHiloPrincipal.registrar(ContadoresHiloPrincipal.LECTURAS_DISCO);
+            return reflector(SQLiteOpenHelperReflector.class, realSQLiteOpenHelper).getReadableDatabase();
+        }
+    }
+
+    @ForType(SQLiteOpenHelper.class)
+    interface SQLiteOpenHelperReflector {
+
+        @Direct
+        SQLiteDatabase getWritableDatabase();
+
+        @Direct
+        SQLiteDatabase getReadableDatabase();
+    }
+}
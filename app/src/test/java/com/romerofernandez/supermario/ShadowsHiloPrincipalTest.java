@@ -0,0 +1,121 @@
+package com.romerofernandez.supermario;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.graphics.BitmapFactory;
+import android.view.LayoutInflater;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de las sombras que cuentan el trabajo del hilo principal. Comprueban que las regresiones
+ * que deben detectar las pruebas de rendimiento se cuentan de verdad (una imagen asignada con
+ * setImageResource al vincular un item, o la base de datos abierta de forma síncrona al crear una
+ * pantalla) y que el mismo trabajo hecho en segundo plano no se cuenta.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = {
+        ShadowsHiloPrincipal.LayoutInflaterContado.class,
+        ShadowsHiloPrincipal.BitmapFactoryContado.class,
+        ShadowsHiloPrincipal.ContextImplContado.class,
+        ShadowsHiloPrincipal.SQLiteOpenHelperContado.class})
+@GraphicsMode(GraphicsMode.Mode.LEGACY)
+public class ShadowsHiloPrincipalTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        ContadoresHiloPrincipal.reiniciar();
+    }
+
+    @Test
+    public void setImageResourceEnElHiloPrincipalCuentaUnaDecodificacion() {
+        ImageView imageView = new ImageView(context);
+        ContadoresHiloPrincipal.reiniciar();
+
+        imageView.setImageResource(android.R.drawable.ic_dialog_email);
+
+        assertEquals(1, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.DECODIFICACIONES));
+        assertEquals(0, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO));
+    }
+
+    @Test
+    public void leerSoloLasDimensionesCuentaComoLecturaDeDisco() {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+
+        BitmapFactory.decodeResource(context.getResources(), android.R.drawable.ic_dialog_info, options);
+
+        assertEquals(0, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.DECODIFICACIONES));
+        assertEquals(1, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO));
+    }
+
+    @Test
+    public void inflarUnLayoutCuentaUnInflado() {
+        LayoutInflater.from(context).inflate(android.R.layout.simple_list_item_1, null, false);
+
+        assertEquals(1, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.INFLADOS));
+    }
+
+    @Test
+    public void abrirLaBaseDeDatosEnElHiloPrincipalCuentaUnaLecturaDeDisco() {
+        SQLiteOpenHelper helper = crearBaseDeDatos();
+
+        helper.getWritableDatabase();
+        helper.getReadableDatabase();
+        helper.close();
+
+        assertEquals(2, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO));
+    }
+
+    @Test
+    public void leerLasPreferenciasCuentaUnaLecturaDeDisco() {
+        context.getSharedPreferences("prueba", Context.MODE_PRIVATE).getString("clave", null);
+
+        assertEquals(1, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO));
+    }
+
+    @Test
+    public void elTrabajoEnSegundoPlanoNoSeCuenta() throws InterruptedException {
+        SQLiteOpenHelper helper = crearBaseDeDatos();
+        Thread hilo = new Thread(() -> {
+            BitmapFactory.decodeResource(context.getResources(), android.R.drawable.ic_dialog_alert);
+            LayoutInflater.from(context).inflate(android.R.layout.simple_list_item_1, null, false);
+            context.getSharedPreferences("prueba", Context.MODE_PRIVATE);
+            helper.getWritableDatabase();
+        });
+        hilo.start();
+        hilo.join();
+        helper.close();
+
+        assertEquals(0, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.INFLADOS));
+        assertEquals(0, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.DECODIFICACIONES));
+        assertEquals(0, ContadoresHiloPrincipal.get(ContadoresHiloPrincipal.LECTURAS_DISCO));
+    }
+
+    private SQLiteOpenHelper crearBaseDeDatos() {
+        return new SQLiteOpenHelper(context, "prueba.db", null, 1) {
+            @Override
+            public void onCreate(SQLiteDatabase db) {
+                db.execSQL("CREATE TABLE prueba (id INTEGER PRIMARY KEY)");
+            }
+
+            @Override
+            public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            }
+        };
+    }
+}
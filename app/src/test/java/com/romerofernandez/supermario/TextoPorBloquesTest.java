@@ -0,0 +1,97 @@
+package com.romerofernandez.supermario;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de la división de biografías en bloques.
+ */
+public class TextoPorBloquesTest {
+
+    private static final int MAX = TextoPorBloques.MAX_LONGITUD_BLOQUE;
+
+    @Test
+    public void textoVacioONuloNoTieneBloques() {
+        assertEquals(0, new TextoPorBloques(null).getNumBloques());
+        assertEquals(0, new TextoPorBloques("").getNumBloques());
+        assertEquals(0, new TextoPorBloques("\n \n\t\n").getNumBloques());
+    }
+
+    @Test
+    public void cadaParrafoEsUnBloqueYSeOmitenLasLineasVacias() {
+        TextoPorBloques texto = new TextoPorBloques("Primero\n\n   \n  Segundo\nTercero\n");
+
+        assertEquals(Arrays.asList("Primero", "Segundo", "Tercero"), bloques(texto));
+    }
+
+    @Test
+    public void losParrafosLargosSeCortanPorEspacios() {
+        StringBuilder parrafo = new StringBuilder();
+        while (parrafo.length() < 3 * MAX) {
+            parrafo.append("palabra").append(parrafo.length() % 7).append(' ');
+        }
+        TextoPorBloques texto = new TextoPorBloques(parrafo.toString().trim());
+
+        List<String> bloques = bloques(texto);
+        assertTrue(bloques.size() >= 3);
+        StringBuilder unidos = new StringBuilder();
+        for (String bloque : bloques) {
+            assertTrue("Bloque de " + bloque.length() + " caracteres", bloque.length() <= MAX);
+            assertFalse(Character.isWhitespace(bloque.charAt(0)));
+            if (unidos.length() > 0) {
+                unidos.append(' ');
+            }
+            unidos.append(bloque.trim());
+        }
+        // Ninguna palabra se parte ni se pierde
+        assertEquals(parrafo.toString().trim(), unidos.toString());
+    }
+
+    @Test
+    public void unParrafoSinEspaciosSeCortaAlMaximo() {
+        StringBuilder parrafo = new StringBuilder();
+        for (int i = 0; i < 2 * MAX + 10; i++) {
+            parrafo.append((char) ('a' + i % 26));
+        }
+        TextoPorBloques texto = new TextoPorBloques(parrafo);
+
+        List<String> bloques = bloques(texto);
+        assertEquals(3, bloques.size());
+        assertEquals(MAX, bloques.get(0).length());
+        assertEquals(MAX, bloques.get(1).length());
+        assertEquals(10, bloques.get(2).length());
+        assertEquals(parrafo.toString(), bloques.get(0) + bloques.get(1) + bloques.get(2));
+    }
+
+    @Test
+    public void ningunBloqueSuperaElMaximoEnUnTextoMixto() {
+        StringBuilder bio = new StringBuilder();
+        for (int parrafo = 0; parrafo < 50; parrafo++) {
+            int palabras = parrafo * 37 % 400;
+            for (int i = 0; i < palabras; i++) {
+                bio.append(i % 11 == 0 ? "superpalabrasinespacios" : "leyenda").append(i % 5 == 0 ? "\t" : " ");
+            }
+            bio.append(parrafo % 3 == 0 ? "\n\n" : "\n");
+        }
+        TextoPorBloques texto = new TextoPorBloques(bio);
+
+        assertTrue(texto.getNumBloques() > 0);
+        for (String bloque : bloques(texto)) {
+            assertTrue(bloque.length() > 0 && bloque.length() <= MAX);
+            assertEquals(-1, bloque.indexOf('\n'));
+        }
+    }
+
+    private static List<String> bloques(TextoPorBloques texto) {
+        List<String> bloques = new ArrayList<>();
+        for (int i = 0; i < texto.getNumBloques(); i++) {
+            bloques.add(texto.getBloque(i).toString());
+        }
+        return bloques;
+    }
+}